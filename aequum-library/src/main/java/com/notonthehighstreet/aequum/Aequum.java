@@ -0,0 +1,559 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * <p>
+ *     A simple utility class to aid the creation of {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+ *     {@linkplain Comparable#compareTo(Object) compareTo} methods. This utility class helps enforce the contract between the three methods such that
+ *     if {@code a.equals(b)} then {@code a.hashCode() == b.hashCode() && a.compareTo(b) == 0} is always true. The classes created by this builder are thread safe.
+ * </p>
+ * <p>
+ *     Example:
+ * </p>
+ * <pre>
+ * public class Pojo implements Comparable&lt;Pojo&gt; {
+ *
+ *   private static final ComparableEqualsHashCode&lt;Pojo&gt; EQUALS_HASH_CODE = Aequum.builder(Pojo.class)
+ *          .withComparableField(Pojo::getFieldOne)
+ *          .withComparableField(Pojo::getFieldTwo)
+ *          .build();
+ *
+ *   private final String fieldOne;
+ *   private final String fieldTwo;
+ *
+ *   public Pojo(final String fieldOne, final String fieldTwo) {
+ *     this.fieldOne = fieldOne;
+ *     this.fieldTwo = fieldTwo;
+ *   }
+ *
+ *   public String getFieldOne() {
+ *     return fieldOne;
+ *   }
+ *
+ *   public String getFieldTwo() {
+ *     return fieldTwo;
+ *   }
+ *
+ *   &#64;Override
+ *   public boolean equals(final Object o) {
+ *     return EQUALS_HASH_CODE.isEqual(this, o);
+ *   }
+ *
+ *   &#64;Override
+ *   public int hashCode() {
+ *     return EQUALS_HASH_CODE.toHashCode(this);
+ *   }
+ *
+ *   &#64;Override
+ *   public int compareTo(final Pojo o) {
+ *     return EQUALS_HASH_CODE.compare(this, o);
+ *   }
+ * }
+ * </pre>
+ * @see ComparableEqualsHashCode#compare(Object, Object)
+ * @see EqualsHashCode#toHashCode(Object)
+ * @see EqualsHashCode#isEqual(Object, Object)
+ */
+public class Aequum {
+
+    /**
+     * Builder for defining the contract for the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+     * optionally {@linkplain Comparable#compareTo(Object) compareTo} methods.
+     * @param <T> Type of the class the methods will work on.
+     */
+    public static class Builder<T> {
+        private final Class<T> expectedType;
+        private final List<ComparableFieldValue<T>> fields;
+        private boolean exactType;
+
+        private Builder(final Class<T> expectedType, final List<ComparableFieldValue<T>> fields, final boolean exactType) {
+            this.expectedType = expectedType;
+            this.fields = fields;
+            this.exactType = exactType;
+        }
+
+        /**
+         * Add an incomparable field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString}
+         * methods. Note that {@linkplain Comparable#compareTo(Object) compareTo} will not be supported.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString}
+         * but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withField(final SerializableFunction<T, Object> field) {
+            return withField(field, field);
+        }
+
+        /**
+         * Add an incomparable field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString}
+         * methods. Note that {@linkplain Comparable#compareTo(Object) compareTo} will not be supported.
+         * @param field Field or getter for a field.
+         * @param toStringValue String representation of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString}
+         * but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withField(final SerializableFunction<T, Object> field, final Function<T, ?> toStringValue) {
+            return new IncomparableBuilder<>(expectedType, fields, exactType).withField(field, toStringValue);
+        }
+
+        /**
+         * Add a comparable field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo} methods.
+         * @param field Field or getter for a field.
+         * @param <V> Type of the field which extends {@linkplain Comparable}
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V extends Comparable<V>> Builder<T> withComparableField(final SerializableFunction<T, V> field) {
+            return withComparableField(field, Comparator.nullsFirst(Comparator.<V>naturalOrder()));
+        }
+
+        /**
+         * Add a comparable field which is {@linkplain Optional} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods. This method assumes that the field will never be null.
+         * @param field Field or getter for a field.
+         * @param <V> Type of the field which extends {@linkplain Comparable}
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V extends Comparable<V>> Builder<T> withOptionalComparableField(final SerializableFunction<T, Optional<V>> field) {
+            return withOptionalComparableField(field, Comparator.<V>naturalOrder());
+        }
+
+        /**
+         * Add a incomparable field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo} methods but with a {@linkplain Comparator} to compare the field with.
+         * @param field Field or getter for a field.
+         * @param comparator {@linkplain Comparator} used to compare the field.
+         * @param <V> Type of the field which extends {@linkplain Comparable}
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> Builder<T> withComparableField(final SerializableFunction<T, V> field, final Comparator<V> comparator) {
+            return withComparableField(field, comparator, field);
+        }
+
+        /**
+         * Add a incomparable field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo} methods but with a {@linkplain Comparator} to compare the field with.
+         * @param field Field or getter for a field.
+         * @param comparator {@linkplain Comparator} used to compare the field.
+         * @param toStringValue String representation of the field.
+         * @param <V> Type of the field which extends {@linkplain Comparable}
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> Builder<T> withComparableField(final SerializableFunction<T, V> field, final Comparator<V> comparator, final Function<T, ?> toStringValue) {
+            fields.add(new ComparableFieldValue<>(true, field, comparator, toStringValue));
+            return this;
+        }
+
+        /**
+         * Add a incomparable field which is {@linkplain Optional} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods but with a {@linkplain Comparator} to compare the field with.
+         * This method assumes that the field will never be null.
+         * @param field Field or getter for a field.
+         * @param comparator {@linkplain Comparator} used to compare the field.
+         * @param <V> Type of the field which extends {@linkplain Comparable}
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> Builder<T> withOptionalComparableField(final SerializableFunction<T, Optional<V>> field, final Comparator<V> comparator) {
+            return withComparableField(field, new OptionalComparator<>(comparator));
+        }
+
+        /**
+         * Add a comparable field which may be {@code null} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods, treating {@code null} as an empty
+         * {@linkplain Optional}. The results, including the {@code Optional[...]} or {@code Optional.empty} shown by {@linkplain Object#toString()} toString},
+         * are the same as for {@linkplain #withOptionalComparableField(SerializableFunction)} with a getter returning {@linkplain Optional#ofNullable(Object)}
+         * of the field, but no {@linkplain Optional} is created when comparing or hashing.
+         * @param field Field or getter for a field.
+         * @param <V> Type of the field which extends {@linkplain Comparable}
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V extends Comparable<V>> Builder<T> withNullableComparableField(final SerializableFunction<T, V> field) {
+            return withNullableComparableField(field, Comparator.<V>naturalOrder());
+        }
+
+        /**
+         * Add a field which may be {@code null} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods but with a {@linkplain Comparator} to
+         * compare the present values with, treating {@code null} as an empty {@linkplain Optional}. The results are the same as for
+         * {@linkplain #withOptionalComparableField(SerializableFunction, Comparator)} with a getter returning {@linkplain Optional#ofNullable(Object)} of
+         * the field, but no {@linkplain Optional} is created when comparing or hashing.
+         * @param field Field or getter for a field.
+         * @param comparator {@linkplain Comparator} used to compare the field when it is not {@code null}.
+         * @param <V> Type of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> Builder<T> withNullableComparableField(final SerializableFunction<T, V> field, final Comparator<V> comparator) {
+            fields.add(new NullableFieldValue<>(field, comparator));
+            return this;
+        }
+
+        /**
+         * Add a field which is a primitive {@code int} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods. The results are the same as for a
+         * {@linkplain Integer} field but the value is never boxed.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public Builder<T> withIntField(final SerializableToIntFunction<T> field) {
+            fields.add(new IntFieldValue<>(field, field::applyAsInt));
+            return this;
+        }
+
+        /**
+         * Add a field which is a primitive {@code long} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods. The results are the same as for a
+         * {@linkplain Long} field but the value is never boxed.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public Builder<T> withLongField(final SerializableToLongFunction<T> field) {
+            fields.add(new LongFieldValue<>(field, field::applyAsLong));
+            return this;
+        }
+
+        /**
+         * Add a field which is a primitive {@code double} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode},
+         * {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods. The results are the same as for a
+         * {@linkplain Double} field but the value is never boxed.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public Builder<T> withDoubleField(final SerializableToDoubleFunction<T> field) {
+            fields.add(new DoubleFieldValue<>(field, field::applyAsDouble));
+            return this;
+        }
+
+        /**
+         * Add a field whose type is itself defined by a {@linkplain ComparableEqualsHashCode}, for use in the {@linkplain Object#equals(Object) equals},
+         * {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods.
+         * The nested definition's fields are inlined into this definition after the field itself, named {@code field.nestedField}, so that they are
+         * evaluated as this definition's own fields by {@code diff}, {@code project} and {@code toColumns} too. Equality, ordering and {@code toString}
+         * are the same as calling the field's own methods, so the field's type must implement those methods with the given definition, with
+         * {@code null} values sorted first. Hash codes are those of the inlined fields, so differ from the field's own {@code hashCode}.
+         * @param field Field or getter for a field.
+         * @param definition Definition used by the field's type.
+         * @param <V> Type of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and
+         * {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> Builder<T> withNestedField(final SerializableFunction<T, V> field, final ComparableEqualsHashCode<V> definition) {
+            fields.addAll(NestedFieldValue.flatten(field, definition));
+            return this;
+        }
+
+        /**
+         * Add an incomparable field whose type is itself defined by an {@linkplain EqualsHashCode}, for use in the {@linkplain Object#equals(Object) equals},
+         * {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString} methods. The nested definition's fields are inlined into
+         * this definition after the field itself, named {@code field.nestedField}. Equality and {@code toString} are the same as calling the field's own
+         * methods, so the field's type must implement those methods with the given definition. Hash codes are those of the inlined fields. Note that {@linkplain Comparable#compareTo(Object) compareTo} will not be supported.
+         * @param field Field or getter for a field.
+         * @param definition Definition used by the field's type.
+         * @param <V> Type of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString}
+         * but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> IncomparableBuilder<T> withNestedField(final SerializableFunction<T, V> field, final EqualsHashCode<V> definition) {
+            return new IncomparableBuilder<>(expectedType, fields, exactType).withNestedField(field, definition);
+        }
+
+        /**
+         * Add a field only for use in the {@linkplain Object#toString()} toString} method.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public Builder<T> withToStringField(final SerializableFunction<T, ?> field) {
+            return withToStringField(field, field);
+        }
+
+        /**
+         * Add a field only for use in the {@linkplain Object#toString()} toString} method.
+         * @param field Field or getter for a field. This will be used to retrieve the name of the field.
+         * @param toStringValue String representation of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public Builder<T> withToStringField(final SerializableFunction<T, ?> field, final Function<T, ?> toStringValue) {
+            fields.add(new ComparableFieldValue<>(false, field, null, toStringValue));
+            return this;
+        }
+
+        /**
+         * Only treat objects as equal if they are of exactly the same class, as with {@code getClass() == o.getClass()}, rather than any instance of the
+         * expected type. This keeps {@linkplain Object#equals(Object) equals} symmetric when subclasses add fields of their own.
+         * @return This builder.
+         */
+        public Builder<T> withExactTypeEquality() {
+            exactType = true;
+            return this;
+        }
+
+        /**
+         * Construct a {@linkplain ComparableEqualsHashCode} based on the details passed into the builder which can support the {@linkplain Object#equals(Object) equals},
+         * {@linkplain Object#hashCode() hashCode}, {@linkplain Object#toString()} toString} and {@linkplain Comparable#compareTo(Object) compareTo} methods.
+         * @return A newly constructed {@linkplain ComparableEqualsHashCode}.
+         */
+        public ComparableEqualsHashCode<T> build() {
+            return new ComparableEqualsHashCode<>(fields, expectedType, exactType);
+        }
+    }
+
+    /**
+     * Builder for defining the contract of just the {@linkplain Object#equals(Object) equals} and {@linkplain Object#hashCode() hashCode} methods.
+     * @param <T> Type of the class the method will work on.
+     */
+    public static class IncomparableBuilder<T> {
+        private final Class<T> expectedType;
+        private final List<FieldValue<T>> fields;
+        private boolean exactType;
+
+        private IncomparableBuilder(final Class<T> expectedType, final List<? extends FieldValue<T>> fields, final boolean exactType) {
+            this.expectedType = expectedType;
+            this.fields = fields.stream().collect(toList());
+            this.exactType = exactType;
+        }
+
+        /**
+         * Add a field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+         * {@linkplain Object#toString()} toString} methods.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withField(final SerializableFunction<T, ?> field) {
+            return withField(field, field);
+        }
+
+        /**
+         * Add a field for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+         * {@linkplain Object#toString()} toString} methods.
+         * @param field Field or getter for a field.
+         * @param toStringValue String representation of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withField(final SerializableFunction<T, ?> field, final Function<T, ?> toStringValue) {
+            fields.add(new FieldValue<>(true, field, toStringValue));
+            return this;
+        }
+
+        /**
+         * Add a field which is a primitive {@code int} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+         * {@linkplain Object#toString()} toString} methods. The results are the same as for a {@linkplain Integer} field but the value
+         * is never boxed.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withIntField(final SerializableToIntFunction<T> field) {
+            fields.add(new IntFieldValue<>(field, field::applyAsInt));
+            return this;
+        }
+
+        /**
+         * Add a field which is a primitive {@code long} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+         * {@linkplain Object#toString()} toString} methods. The results are the same as for a {@linkplain Long} field but the value
+         * is never boxed.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withLongField(final SerializableToLongFunction<T> field) {
+            fields.add(new LongFieldValue<>(field, field::applyAsLong));
+            return this;
+        }
+
+        /**
+         * Add a field which is a primitive {@code double} for use in the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+         * {@linkplain Object#toString()} toString} methods. The results are the same as for a {@linkplain Double} field but the value
+         * is never boxed.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withDoubleField(final SerializableToDoubleFunction<T> field) {
+            fields.add(new DoubleFieldValue<>(field, field::applyAsDouble));
+            return this;
+        }
+
+        /**
+         * Add a field whose type is itself defined by an {@linkplain EqualsHashCode}, for use in the {@linkplain Object#equals(Object) equals},
+         * {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString} methods. The nested definition's fields are inlined into
+         * this definition after the field itself, named {@code field.nestedField}. Equality and {@code toString} are the same as calling the field's own
+         * methods, so the field's type must implement those methods with the given definition. Hash codes are those of the inlined fields.
+         * @param field Field or getter for a field.
+         * @param definition Definition used by the field's type.
+         * @param <V> Type of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public <V> IncomparableBuilder<T> withNestedField(final SerializableFunction<T, V> field, final EqualsHashCode<V> definition) {
+            fields.addAll(NestedFieldValue.flatten(field, definition));
+            return this;
+        }
+
+        /**
+         * Add a field only for use in the {@linkplain Object#toString()} toString} method.
+         * @param field Field or getter for a field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withToStringField(final SerializableFunction<T, ?> field) {
+            return withToStringField(field, field);
+        }
+
+        /**
+         * Add a field only for use in the {@linkplain Object#toString()} toString} method.
+         * @param field Field or getter for a field. This will be used to retrieve the name of the field.
+         * @param toStringValue String representation of the field.
+         * @return A builder which will support {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} &amp;
+         * {@linkplain Object#toString()} toString} but not support {@linkplain Comparable#compareTo(Object) compareTo}.
+         */
+        public IncomparableBuilder<T> withToStringField(final SerializableFunction<T, ?> field, final Function<T, ?> toStringValue) {
+            fields.add(new FieldValue<>(false, field, toStringValue));
+            return this;
+        }
+
+        /**
+         * Only treat objects as equal if they are of exactly the same class, as with {@code getClass() == o.getClass()}, rather than any instance of the
+         * expected type. This keeps {@linkplain Object#equals(Object) equals} symmetric when subclasses add fields of their own.
+         * @return This builder.
+         */
+        public IncomparableBuilder<T> withExactTypeEquality() {
+            exactType = true;
+            return this;
+        }
+
+        /**
+         * Construct an {@linkplain EqualsHashCode} based on the details passed into the builder which can support the {@linkplain Object#equals(Object) equals},
+         * {@linkplain Object#hashCode() hashCode} and {@linkplain Object#toString()} toString} methods. Note that this will not support the
+         * {@linkplain Comparable#compareTo(Object) compareTo} method.
+         * @return A newly constructed {@linkplain EqualsHashCode}.
+         */
+        public EqualsHashCode<T> build() {
+            return new EqualsHashCode<>(fields, expectedType, exactType);
+        }
+    }
+
+    /**
+     * Creates a new builder which is used to define the contract for the {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and
+     * {@linkplain Comparable#compareTo(Object) compareTo} methods.
+     * @param expectedType Class of the type that the methods will work on.
+     * @param <T> Type of the clas that the methods will work on.
+     * @return New builder to define the contract for the methods.
+     */
+    public static <T> Builder<T> builder(final Class<T> expectedType) {
+        return new Builder<>(expectedType, new ArrayList<>(), false);
+    }
+
+    /**
+     * <p>
+     *     Creates a new builder for a subclass which starts with every field of the parent's definition, including those only used for
+     *     {@linkplain Object#toString()} toString}, so that only the subclass' own fields need to be added. The parent's fields are reused as they are
+     *     rather than being resolved again, and the subclass' fields are compared after them. Exact type equality is kept if the parent used it.
+     * </p>
+     * <pre>
+     * private static final ComparableEqualsHashCode&lt;Child&gt; EQUALS_HASH_CODE = Aequum.extending(Parent.EQUALS_HASH_CODE, Child.class)
+     *        .withComparableField(Child::getFieldThree)
+     *        .withExactTypeEquality()
+     *        .build();
+     * </pre>
+     * @param parent Definition of the parent type.
+     * @param subType Class of the subclass that the methods will work on.
+     * @param <P> Type of the parent class.
+     * @param <S> Type of the subclass that the methods will work on.
+     * @return New builder to define the contract for the methods.
+     */
+    @SuppressWarnings("unchecked")
+    public static <P, S extends P> Builder<S> extending(final ComparableEqualsHashCode<P> parent, final Class<S> subType) {
+        // The fields only ever consume the parent type, so they can be applied to the subclass as they are
+        final List<ComparableFieldValue<S>> fields = new ArrayList<>((List<ComparableFieldValue<S>>) (List<?>) parent.getDefinedFields());
+        return new Builder<>(subType, fields, parent.isExactType());
+    }
+
+    /**
+     * Creates a new builder for a subclass which starts with every field of the parent's definition, including those only used for
+     * {@linkplain Object#toString()} toString}, so that only the subclass' own fields need to be added. Note that
+     * {@linkplain Comparable#compareTo(Object) compareTo} will not be supported.
+     * @param parent Definition of the parent type.
+     * @param subType Class of the subclass that the methods will work on.
+     * @param <P> Type of the parent class.
+     * @param <S> Type of the subclass that the methods will work on.
+     * @return New builder to define the contract for the methods.
+     * @see #extending(ComparableEqualsHashCode, Class)
+     */
+    @SuppressWarnings("unchecked")
+    public static <P, S extends P> IncomparableBuilder<S> extending(final EqualsHashCode<P> parent, final Class<S> subType) {
+        return new IncomparableBuilder<>(subType, (List<FieldValue<S>>) (List<?>) parent.getDefinedFields(), parent.isExactType());
+    }
+
+    /**
+     * Creates an {@linkplain EqualsHashCode} which uses every component of a record, in declaration order. The component names are read from the record
+     * itself rather than being derived from lambdas. Records are only supported when running on Java 17 or later.
+     * Primitive components are read without boxing, as with {@linkplain Builder#withIntField(SerializableToIntFunction)}.
+     * @param recordType Class of the record that the methods will work on.
+     * @param <T> Type of the record that the methods will work on.
+     * @return A newly constructed {@linkplain EqualsHashCode}.
+     * @throws IllegalArgumentException if the class is not a record.
+     * @throws UnsupportedOperationException if running on a version of Java without records.
+     */
+    public static <T> EqualsHashCode<T> forRecord(final Class<T> recordType) {
+        return new EqualsHashCode<>(Platform.recordFields(recordType, false), recordType, false);
+    }
+
+    /**
+     * Creates a {@linkplain ComparableEqualsHashCode} which uses every component of a record, in declaration order, compared by their natural ordering
+     * with {@code null} values first. Records are only supported when running on Java 17 or later.
+     * Primitive components are read without boxing, as with {@linkplain Builder#withIntField(SerializableToIntFunction)}.
+     * @param recordType Class of the record that the methods will work on.
+     * @param <T> Type of the record that the methods will work on.
+     * @return A newly constructed {@linkplain ComparableEqualsHashCode}.
+     * @throws IllegalArgumentException if the class is not a record or has a component which is neither primitive nor {@linkplain Comparable}.
+     * @throws UnsupportedOperationException if running on a version of Java without records.
+     */
+    public static <T> ComparableEqualsHashCode<T> forComparableRecord(final Class<T> recordType) {
+        return new ComparableEqualsHashCode<>(Platform.recordFields(recordType, true), recordType, false);
+    }
+}
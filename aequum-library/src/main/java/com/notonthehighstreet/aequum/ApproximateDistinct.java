@@ -0,0 +1,18 @@
+package com.notonthehighstreet.aequum;
+
+class ApproximateDistinct<T> extends Distinct<T> {
+
+    private final BloomFilter<T> seen;
+
+    ApproximateDistinct(final EqualsHashCode<T> definition, final long expectedInsertions, final double falsePositiveRate) {
+        this.seen = BloomFilter.create(definition, expectedInsertions, falsePositiveRate);
+    }
+
+    @Override
+    public boolean add(final T object) {
+        if (object == null) {
+            throw new NullPointerException("Null elements are not supported");
+        }
+        return seen.put(object);
+    }
+}
@@ -0,0 +1,239 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The values of one field for every row of a {@linkplain ColumnarBatch}, with the same equality, hash code and ordering as the field itself.
+ */
+abstract class BatchColumn {
+
+    /**
+     * Fold this column's hash code into the running hash code of each row, as {@linkplain EqualsHashCode#toHashCode(Object)} does per field.
+     */
+    abstract void hashInto(int[] hashes);
+
+    abstract boolean isEqual(int row, int otherRow);
+
+    abstract int compare(int row, int otherRow);
+
+    static final class IntColumn extends BatchColumn {
+        private final int[] values;
+
+        IntColumn(final int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        void hashInto(final int[] hashes) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = 31 * hashes[i] + Integer.hashCode(values[i]);
+            }
+        }
+
+        @Override
+        boolean isEqual(final int row, final int otherRow) {
+            return values[row] == values[otherRow];
+        }
+
+        @Override
+        int compare(final int row, final int otherRow) {
+            return Integer.compare(values[row], values[otherRow]);
+        }
+    }
+
+    static final class LongColumn extends BatchColumn {
+        private final long[] values;
+
+        LongColumn(final long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        void hashInto(final int[] hashes) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = 31 * hashes[i] + Long.hashCode(values[i]);
+            }
+        }
+
+        @Override
+        boolean isEqual(final int row, final int otherRow) {
+            return values[row] == values[otherRow];
+        }
+
+        @Override
+        int compare(final int row, final int otherRow) {
+            return Long.compare(values[row], values[otherRow]);
+        }
+    }
+
+    static final class DoubleColumn extends BatchColumn {
+        private final double[] values;
+
+        DoubleColumn(final double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        void hashInto(final int[] hashes) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = 31 * hashes[i] + Double.hashCode(values[i]);
+            }
+        }
+
+        @Override
+        boolean isEqual(final int row, final int otherRow) {
+            return Double.doubleToLongBits(values[row]) == Double.doubleToLongBits(values[otherRow]);
+        }
+
+        @Override
+        int compare(final int row, final int otherRow) {
+            return Double.compare(values[row], values[otherRow]);
+        }
+    }
+
+    static final class FloatColumn extends BatchColumn {
+        private final float[] values;
+
+        FloatColumn(final float[] values) {
+            this.values = values;
+        }
+
+        @Override
+        void hashInto(final int[] hashes) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = 31 * hashes[i] + Float.hashCode(values[i]);
+            }
+        }
+
+        @Override
+        boolean isEqual(final int row, final int otherRow) {
+            return Float.floatToIntBits(values[row]) == Float.floatToIntBits(values[otherRow]);
+        }
+
+        @Override
+        int compare(final int row, final int otherRow) {
+            return Float.compare(values[row], values[otherRow]);
+        }
+    }
+
+    /**
+     * Column of dictionary ids, where each distinct value of the field (by the field's own equality) is given a dense id in the order it was first seen.
+     * The field is read once per row, with the dictionary hashing and comparing the values read rather than reading them from the rows again. When
+     * ranked, each id also has its position in the field's ordering, with values that compare as equal sharing a rank.
+     */
+    static final class DictionaryColumn<T> extends BatchColumn {
+        private final int[] ids;
+        private final int[] idHashes;
+        private final int[] ranks;
+
+        DictionaryColumn(final FieldValue<T> field, final List<? extends T> rows, final boolean ranked) {
+            final Dictionary dictionary = new Dictionary(field);
+
+            ids = new int[rows.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = dictionary.getOrAdd(field.getField().apply(rows.get(i)));
+            }
+
+            idHashes = dictionary.hashes();
+            ranks = ranked ? rank(((ComparableFieldValue<T>) field).getComparator(), dictionary.values()) : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int[] rank(final Comparator comparator, final List<Object> values) {
+            final Integer[] order = new Integer[values.size()];
+            for (int id = 0; id < order.length; id++) {
+                order[id] = id;
+            }
+            Arrays.sort(order, (a, b) -> comparator.compare(values.get(a), values.get(b)));
+
+            final int[] ranks = new int[order.length];
+            for (int i = 1; i < order.length; i++) {
+                final boolean tied = comparator.compare(values.get(order[i - 1]), values.get(order[i])) == 0;
+                ranks[order[i]] = tied ? ranks[order[i - 1]] : ranks[order[i - 1]] + 1;
+            }
+            return ranks;
+        }
+
+        @Override
+        void hashInto(final int[] hashes) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = 31 * hashes[i] + idHashes[ids[i]];
+            }
+        }
+
+        @Override
+        boolean isEqual(final int row, final int otherRow) {
+            return ids[row] == ids[otherRow];
+        }
+
+        @Override
+        int compare(final int row, final int otherRow) {
+            return Integer.compare(ranks[ids[row]], ranks[ids[otherRow]]);
+        }
+    }
+
+    /**
+     * Open addressing hash table from the distinct values of a field to their dense ids, using the field's equality and hash code for the values. An
+     * empty slot is marked by a {@code null} key, so a {@code null} value is given its id outside the table.
+     */
+    private static final class Dictionary extends OpenAddressingTable {
+        private final FieldValue<?> field;
+        private final List<Object> values = new ArrayList<>();
+        private int[] valueHashes = new int[16];
+        private int nullId = -1;
+
+        Dictionary(final FieldValue<?> field) {
+            super(0, true);
+            this.field = field;
+        }
+
+        int getOrAdd(final Object value) {
+            final int hash = field.valueHash(value);
+            if (value == null) {
+                if (nullId < 0) {
+                    nullId = add(null, hash);
+                }
+                return nullId;
+            }
+
+            int index = slot(hash);
+            while (!isEmpty(index)) {
+                if (hashAt(index) == hash && field.valuesEqual(keyAt(index), value)) {
+                    return valueAt(index);
+                }
+                index = next(index);
+            }
+
+            final int id = add(value, hash);
+            insert(index, hash, value, id);
+            return id;
+        }
+
+        /**
+         * The distinct values, indexed by id.
+         */
+        List<Object> values() {
+            return values;
+        }
+
+        /**
+         * The hash code of each value, indexed by id.
+         */
+        int[] hashes() {
+            return Arrays.copyOf(valueHashes, values.size());
+        }
+
+        private int add(final Object value, final int hash) {
+            final int id = values.size();
+            if (id == valueHashes.length) {
+                valueHashes = Arrays.copyOf(valueHashes, id * 2);
+            }
+            valueHashes[id] = hash;
+            values.add(value);
+            return id;
+        }
+    }
+}
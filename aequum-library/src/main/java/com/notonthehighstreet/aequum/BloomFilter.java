@@ -0,0 +1,245 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.IntFunction;
+
+/**
+ * <p>
+ *     Probabilistic set of objects, where membership is decided by an {@linkplain EqualsHashCode}. {@linkplain #mightContain(Object)} never gives a
+ *     false negative but gives false positives at around the rate the filter was sized for. Each object is hashed with
+ *     {@linkplain EqualsHashCode#toLongHashCode(Object)}, from which the bit positions are derived by double hashing.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  private final BloomFilter&lt;Key&gt; seen = BloomFilter.create(EQUALS_HASH_CODE, 10_000_000, 0.01);
+ *
+ *  public Optional&lt;Value&gt; lookup(final Key key) {
+ *    return seen.mightContain(key) ? store.lookup(key) : Optional.empty();
+ *  }
+ * </pre>
+ * <p>
+ *     Inserts are thread safe and don't lock, other than for off heap storage on Java 8. An object being inserted by one thread may not yet be visible
+ *     to {@linkplain #mightContain(Object)} on another thread.
+ * </p>
+ * @param <T> Type of the objects in the filter.
+ */
+public class BloomFilter<T> {
+
+    private static final int MAGIC = 0xAE0B100F;
+    private static final int MAXIMUM_WORDS = (Integer.MAX_VALUE - 8) / Long.BYTES;
+
+    private final EqualsHashCode<T> definition;
+    private final BloomStorage storage;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    private BloomFilter(final EqualsHashCode<T> definition, final BloomStorage storage, final int hashFunctions) {
+        this.definition = definition;
+        this.storage = storage;
+        this.bitCount = (long) storage.words() * Long.SIZE;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Create a filter backed by a {@code long} array on the heap.
+     * @param definition Definition of equality between the objects.
+     * @param expectedInsertions Number of distinct objects expected to be inserted.
+     * @param falsePositiveRate Desired rate of false positives once that many objects have been inserted.
+     * @param <T> Type of the objects in the filter.
+     * @return An empty filter.
+     */
+    public static <T> BloomFilter<T> create(final EqualsHashCode<T> definition, final long expectedInsertions, final double falsePositiveRate) {
+        return create(definition, expectedInsertions, falsePositiveRate, LongArrayStorage::new);
+    }
+
+    /**
+     * Create a filter backed by a direct {@linkplain java.nio.ByteBuffer}, so that its bits are held off the heap.
+     * @param definition Definition of equality between the objects.
+     * @param expectedInsertions Number of distinct objects expected to be inserted.
+     * @param falsePositiveRate Desired rate of false positives once that many objects have been inserted.
+     * @param <T> Type of the objects in the filter.
+     * @return An empty filter.
+     */
+    public static <T> BloomFilter<T> createOffHeap(final EqualsHashCode<T> definition, final long expectedInsertions, final double falsePositiveRate) {
+        return create(definition, expectedInsertions, falsePositiveRate, ByteBufferStorage::new);
+    }
+
+    private static <T> BloomFilter<T> create(final EqualsHashCode<T> definition, final long expectedInsertions, final double falsePositiveRate,
+                                             final IntFunction<BloomStorage> storage) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        final double optimalBits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        final int words = (int) Math.min(MAXIMUM_WORDS, Math.max(1, (long) Math.ceil(optimalBits / Long.SIZE)));
+        final long bitCount = (long) words * Long.SIZE;
+        final int hashFunctions = Math.max(1, (int) Math.round(bitCount / (double) expectedInsertions * Math.log(2)));
+        return new BloomFilter<>(definition, storage.apply(words), hashFunctions);
+    }
+
+    /**
+     * Insert the object into the filter.
+     * @param object Object to insert.
+     * @return True if any bits changed, so the object definitely wasn't in the filter before, false if it might have been.
+     */
+    public boolean put(final T object) {
+        // Derive two hashes from the 64 bit hash code and combine them, as per Kirsch and Mitzenmacher
+        final long hash = definition.toLongHashCode(object);
+        final long second = LongHashing.mix(hash) | 1;
+
+        boolean changed = false;
+        long combined = hash;
+        for (int i = 0; i < hashFunctions; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % bitCount;
+            final long mask = 1L << bit;
+            if ((storage.or((int) (bit >>> 6), mask) & mask) == 0) {
+                changed = true;
+            }
+            combined += second;
+        }
+        return changed;
+    }
+
+    /**
+     * Check whether the object might have been inserted into the filter.
+     * @param object Object to check.
+     * @return False if the object definitely hasn't been inserted, true if it probably has.
+     */
+    public boolean mightContain(final T object) {
+        final long hash = definition.toLongHashCode(object);
+        final long second = LongHashing.mix(hash) | 1;
+
+        long combined = hash;
+        for (int i = 0; i < hashFunctions; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((storage.word((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += second;
+        }
+        return true;
+    }
+
+    /**
+     * Insert every object of another filter into this one, so that this filter contains the union of the two.
+     * @param other Filter created with the same definition, size and false positive rate.
+     * @throws IllegalArgumentException if the filters have a different number of bits or hash functions.
+     */
+    public void merge(final BloomFilter<T> other) {
+        if (other.bitCount != bitCount || other.hashFunctions != hashFunctions) {
+            throw new IllegalArgumentException("Filters are not compatible: " + bitCount + " bits with " + hashFunctions + " hash functions and "
+                    + other.bitCount + " bits with " + other.hashFunctions + " hash functions");
+        }
+
+        for (int i = 0; i < storage.words(); i++) {
+            final long word = other.storage.word(i);
+            if (word != 0) {
+                storage.or(i, word);
+            }
+        }
+    }
+
+    /**
+     * Estimate the rate of false positives from the proportion of bits that are set.
+     * @return The expected false positive rate.
+     */
+    public double getExpectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < storage.words(); i++) {
+            set += Long.bitCount(storage.word(i));
+        }
+        return Math.pow((double) set / bitCount, hashFunctions);
+    }
+
+    /**
+     * @return The number of bits in the filter.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return The number of bits set for each object.
+     */
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Write the filter to a stream, so that it can be recreated by {@linkplain #readFrom(EqualsHashCode, InputStream)}. The definition isn't written,
+     * so it must be the same when the filter is read back.
+     * @param out Stream to write to, which isn't closed.
+     * @throws IOException if the stream can't be written to.
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(hashFunctions);
+        data.writeInt(storage.words());
+        for (int i = 0; i < storage.words(); i++) {
+            data.writeLong(storage.word(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Read a filter written by {@linkplain #writeTo(OutputStream)}, backed by a {@code long} array on the heap.
+     * @param definition Definition the filter was created with.
+     * @param in Stream to read from, which isn't closed.
+     * @param <T> Type of the objects in the filter.
+     * @return The filter.
+     * @throws IOException if the stream can't be read or doesn't contain a filter.
+     */
+    public static <T> BloomFilter<T> readFrom(final EqualsHashCode<T> definition, final InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Stream does not contain a Bloom filter");
+        }
+        final int hashFunctions = data.readInt();
+        final int words = data.readInt();
+        if (hashFunctions <= 0 || words <= 0 || words > MAXIMUM_WORDS) {
+            throw new IOException("Invalid Bloom filter with " + hashFunctions + " hash functions and " + words + " words");
+        }
+
+        final LongArrayStorage storage = new LongArrayStorage(words);
+        for (int i = 0; i < words; i++) {
+            storage.or(i, data.readLong());
+        }
+        return new BloomFilter<>(definition, storage, hashFunctions);
+    }
+}
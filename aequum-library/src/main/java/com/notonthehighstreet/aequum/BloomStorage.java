@@ -0,0 +1,17 @@
+package com.notonthehighstreet.aequum;
+
+/**
+ * The words of bits behind a {@linkplain BloomFilter}. Setting bits is atomic so that several threads can insert at once.
+ */
+interface BloomStorage {
+
+    int words();
+
+    long word(int index);
+
+    /**
+     * Atomically set the bits of the mask in the word.
+     * @return The word before the bits were set.
+     */
+    long or(int index, long mask);
+}
@@ -0,0 +1,279 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * <p>
+ *     Concurrent cache bounded by the number or total weight of its entries, whose keys are matched by an {@linkplain EqualsHashCode} rather than their
+ *     own {@linkplain Object#equals(Object) equals} method. This allows keys to be cached on just the fields that matter, or keys whose equality
+ *     can't be changed to be cached at all.
+ * </p>
+ * <p>
+ *     The cache is split into segments, each with its own lock, so threads only contend when they use keys in the same segment. Each segment evicts
+ *     with a segmented LRU policy: entries read more than once are protected from entries which are only read once. The hash code of each key is
+ *     calculated once and kept with the entry.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  private final BoundedCache&lt;Query, Result&gt; cache = BoundedCache.builder(QUERY_EQUALS_HASH_CODE)
+ *      .withMaximumSize(10_000)
+ *      .build();
+ *
+ *  public Result run(final Query query) {
+ *    return cache.computeIfAbsent(query, this::execute);
+ *  }
+ * </pre>
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int MAXIMUM_SEGMENTS = 1 << 16;
+
+    private final EqualsHashCode<K> definition;
+    private final CacheSegment<K, V>[] segments;
+    private final CacheStatistics statistics;
+    private final int segmentShift;
+
+    @SuppressWarnings("unchecked")
+    private BoundedCache(final Builder<K, V> builder) {
+        this.definition = builder.definition;
+        this.statistics = new CacheStatistics();
+
+        // Never split the bound so finely that a segment can't hold a single entry of unit weight
+        int segmentCount = 1;
+        while (segmentCount < builder.concurrencyLevel && segmentCount * 2L <= builder.maximumWeight && segmentCount < MAXIMUM_SEGMENTS) {
+            segmentCount <<= 1;
+        }
+        this.segments = new CacheSegment[segmentCount];
+        this.segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder over the first segments so that the bounds add up to the maximum
+            final long segmentWeight = builder.maximumWeight / segmentCount + (i < builder.maximumWeight % segmentCount ? 1 : 0);
+            segments[i] = new CacheSegment<>(definition, builder.weigher, segmentWeight, statistics);
+        }
+    }
+
+    /**
+     * Builder for a {@linkplain BoundedCache}.
+     * @param <K> Type of the keys.
+     * @param <V> Type of the values.
+     */
+    public static class Builder<K, V> {
+        private final EqualsHashCode<K> definition;
+        private long maximumWeight = -1;
+        private ToLongBiFunction<? super K, ? super V> weigher;
+        private int concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+
+        private Builder(final EqualsHashCode<K> definition) {
+            this.definition = definition;
+        }
+
+        /**
+         * Bound the cache by the number of entries.
+         * @param entries Maximum number of entries.
+         * @return This builder.
+         */
+        public Builder<K, V> withMaximumSize(final long entries) {
+            return withMaximumWeight(entries, (k, v) -> 1);
+        }
+
+        /**
+         * Bound the cache by the total weight of its entries.
+         * @param weight Maximum total weight.
+         * @param weigher Calculates the weight of an entry when it is stored, which must not be negative.
+         * @param <K1> Type of the keys.
+         * @param <V1> Type of the values.
+         * @return This builder.
+         */
+        @SuppressWarnings("unchecked")
+        public <K1 extends K, V1 extends V> Builder<K1, V1> withMaximumWeight(final long weight, final ToLongBiFunction<? super K1, ? super V1> weigher) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Maximum must be positive: " + weight);
+            }
+            final Builder<K1, V1> self = (Builder<K1, V1>) this;
+            self.maximumWeight = weight;
+            self.weigher = weigher;
+            return self;
+        }
+
+        /**
+         * Set the number of threads expected to use the cache at once, which decides how many segments it is split into. Defaults to 16.
+         * @param threads Number of threads.
+         * @return This builder.
+         */
+        public Builder<K, V> withConcurrencyLevel(final int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Concurrency level must be positive: " + threads);
+            }
+            this.concurrencyLevel = threads;
+            return this;
+        }
+
+        /**
+         * Build the {@linkplain BoundedCache}.
+         * @param <K1> Type of the keys.
+         * @param <V1> Type of the values.
+         * @return A newly constructed, empty {@linkplain BoundedCache}.
+         * @throws IllegalStateException if neither a maximum size nor a maximum weight has been set.
+         */
+        @SuppressWarnings("unchecked")
+        public <K1 extends K, V1 extends V> BoundedCache<K1, V1> build() {
+            if (maximumWeight < 0) {
+                throw new IllegalStateException("A maximum size or weight must be set");
+            }
+            return (BoundedCache<K1, V1>) new BoundedCache<>(this);
+        }
+    }
+
+    /**
+     * Creates a new builder for a cache.
+     * @param definition Definition of equality between the keys.
+     * @param <K> Type of the keys.
+     * @param <V> Type of the values.
+     * @return New builder for the cache.
+     */
+    public static <K, V> Builder<K, V> builder(final EqualsHashCode<K> definition) {
+        return new Builder<>(definition);
+    }
+
+    /**
+     * Look up the value for the key.
+     * @param key Key to look up.
+     * @return The value, or null if there isn't one.
+     */
+    public V get(final K key) {
+        final int hash = hash(key);
+        final V value = segmentFor(hash).get(key, hash);
+        if (value == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+        return value;
+    }
+
+    /**
+     * Look up the value for the key, calculating and storing it if there isn't one. The calculation is done without holding any lock, so if several
+     * threads miss on the same key at once each of them calculates the value, but only the first one stored is kept and returned to all of them.
+     * @param key Key to look up.
+     * @param function Calculates the value for the key, which must not return null.
+     * @return The value.
+     */
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> function) {
+        final int hash = hash(key);
+        final CacheSegment<K, V> segment = segmentFor(hash);
+        final V existing = segment.get(key, hash);
+        if (existing != null) {
+            statistics.recordHit();
+            return existing;
+        }
+
+        statistics.recordMiss();
+        final V value = function.apply(key);
+        if (value == null) {
+            throw new NullPointerException("Calculated value for " + key + " is null");
+        }
+        return segment.put(key, hash, value, true);
+    }
+
+    /**
+     * Store the value for the key, replacing any existing value.
+     * @param key Key to store against.
+     * @param value Value to store, which must not be null.
+     */
+    public void put(final K key, final V value) {
+        if (value == null) {
+            throw new NullPointerException("Value for " + key + " is null");
+        }
+        final int hash = hash(key);
+        segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Remove the value for the key.
+     * @param key Key to remove.
+     * @return The value that was removed, or null if there wasn't one.
+     */
+    public V remove(final K key) {
+        final int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Remove every entry. Removed entries aren't counted as evictions.
+     */
+    public void clear() {
+        for (final CacheSegment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return The number of entries, which may be out of date by the time it is returned if other threads are using the cache.
+     */
+    public long size() {
+        long size = 0;
+        for (final CacheSegment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return The total weight of the entries, which may be out of date by the time it is returned if other threads are using the cache.
+     */
+    public long weight() {
+        long weight = 0;
+        for (final CacheSegment<K, V> segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    /**
+     * @return A snapshot of the statistics since the cache was created.
+     */
+    public CacheStats stats() {
+        return statistics.snapshot();
+    }
+
+    private int hash(final K key) {
+        // Spread the bits so that both the segment, taken from the top bits, and the bucket, taken from the bottom bits, are well distributed
+        return OpenAddressingTable.mix(definition.toHashCode(key));
+    }
+
+    private CacheSegment<K, V> segmentFor(final int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+}
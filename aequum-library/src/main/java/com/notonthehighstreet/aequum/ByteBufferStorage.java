@@ -0,0 +1,35 @@
+package com.notonthehighstreet.aequum;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Off heap storage in a direct {@linkplain ByteBuffer}. How bits are set atomically depends on the version of Java, see
+ * {@linkplain Platform#getAndBitwiseOr(ByteBuffer, int, long)}.
+ */
+class ByteBufferStorage implements BloomStorage {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferStorage(final int words) {
+        this.buffer = ByteBuffer.allocateDirect(words * Long.BYTES);
+    }
+
+    @Override
+    public int words() {
+        return buffer.capacity() / Long.BYTES;
+    }
+
+    @Override
+    public long word(final int index) {
+        return buffer.getLong(index * Long.BYTES);
+    }
+
+    @Override
+    public long or(final int index, final long mask) {
+        final long current = word(index);
+        if ((current & mask) == mask) {
+            return current;
+        }
+        return Platform.getAndBitwiseOr(buffer, index * Long.BYTES, mask);
+    }
+}
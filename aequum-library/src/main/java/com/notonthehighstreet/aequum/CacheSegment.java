@@ -0,0 +1,270 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * One independently locked part of a {@linkplain BoundedCache}. Entries are chained in a hash table by their cached hash code and kept in two
+ * recency lists as a segmented LRU: new entries start on probation and are promoted to the protected list when they are read again. Eviction takes
+ * the least recently used entry on probation first, so a scan of entries read only once can't flush out those read repeatedly.
+ */
+class CacheSegment<K, V> {
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private final EqualsHashCode<K> definition;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final long maximumWeight;
+    private final long maximumProtectedWeight;
+    private final CacheStatistics statistics;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Node<K, V>[] table;
+    private Node<K, V> probation;
+    private Node<K, V> protectedEntries;
+    private int size;
+    private long weight;
+    private long protectedWeight;
+
+    static final class Node<K, V> {
+        final K key;
+        final int hash;
+        V value;
+        long weight;
+        boolean isProtected;
+        Node<K, V> nextInBucket;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(final K key, final int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    CacheSegment(final EqualsHashCode<K> definition, final ToLongBiFunction<? super K, ? super V> weigher, final long maximumWeight,
+                 final CacheStatistics statistics) {
+        this.definition = definition;
+        this.weigher = weigher;
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = maximumWeight * 4 / 5;
+        this.statistics = statistics;
+        this.table = new Node[MINIMUM_CAPACITY];
+        this.probation = sentinel();
+        this.protectedEntries = sentinel();
+    }
+
+    V get(final K key, final int hash) {
+        lock.lock();
+        try {
+            final Node<K, V> node = find(key, hash);
+            if (node == null) {
+                return null;
+            }
+            recordAccess(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store the value, replacing any existing value unless {@code onlyIfAbsent} is set.
+     * @return The value now associated with the key.
+     */
+    V put(final K key, final int hash, final V value, final boolean onlyIfAbsent) {
+        final long entryWeight = weigher.applyAsLong(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + entryWeight);
+        }
+
+        lock.lock();
+        try {
+            Node<K, V> node = find(key, hash);
+            if (node != null) {
+                if (onlyIfAbsent) {
+                    recordAccess(node);
+                    return node.value;
+                }
+                unlink(node);
+                weight -= node.weight;
+                if (node.isProtected) {
+                    protectedWeight -= node.weight;
+                }
+                node.value = value;
+                node.weight = entryWeight;
+                weight += entryWeight;
+                if (node.isProtected) {
+                    protectedWeight += entryWeight;
+                    linkLast(protectedEntries, node);
+                    demote(node);
+                } else {
+                    linkLast(probation, node);
+                }
+            } else {
+                node = new Node<>(key, hash);
+                node.value = value;
+                node.weight = entryWeight;
+                insert(node);
+                linkLast(probation, node);
+                weight += entryWeight;
+            }
+            evict();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    V remove(final K key, final int hash) {
+        lock.lock();
+        try {
+            final Node<K, V> node = find(key, hash);
+            if (node == null) {
+                return null;
+            }
+            removeNode(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            while (probation.next != probation) {
+                removeNode(probation.next);
+            }
+            while (protectedEntries.next != protectedEntries) {
+                removeNode(protectedEntries.next);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long weight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Node<K, V> find(final K key, final int hash) {
+        for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.nextInBucket) {
+            if (node.hash == hash && definition.isEqual(node.key, key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void recordAccess(final Node<K, V> node) {
+        unlink(node);
+        if (!node.isProtected) {
+            node.isProtected = true;
+            protectedWeight += node.weight;
+        }
+        linkLast(protectedEntries, node);
+        demote(node);
+    }
+
+    /**
+     * Demote the least recently used protected entries other than the given one, until the protected list is back within its share of the weight, so
+     * that probation always has room for new entries.
+     */
+    private void demote(final Node<K, V> retained) {
+        while (protectedWeight > maximumProtectedWeight && protectedEntries.next != retained) {
+            final Node<K, V> demoted = protectedEntries.next;
+            unlink(demoted);
+            demoted.isProtected = false;
+            protectedWeight -= demoted.weight;
+            linkLast(probation, demoted);
+        }
+    }
+
+    private void evict() {
+        while (weight > maximumWeight) {
+            final Node<K, V> victim = probation.next != probation ? probation.next : protectedEntries.next;
+            removeNode(victim);
+            statistics.recordEviction();
+        }
+    }
+
+    private void insert(final Node<K, V> node) {
+        if (++size > table.length * 3 / 4) {
+            resize();
+        }
+        final int bucket = node.hash & (table.length - 1);
+        node.nextInBucket = table[bucket];
+        table[bucket] = node;
+    }
+
+    private void removeNode(final Node<K, V> node) {
+        final int bucket = node.hash & (table.length - 1);
+        if (table[bucket] == node) {
+            table[bucket] = node.nextInBucket;
+        } else {
+            Node<K, V> previous = table[bucket];
+            while (previous.nextInBucket != node) {
+                previous = previous.nextInBucket;
+            }
+            previous.nextInBucket = node.nextInBucket;
+        }
+        unlink(node);
+        size--;
+        weight -= node.weight;
+        if (node.isProtected) {
+            protectedWeight -= node.weight;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        final Node<K, V>[] old = table;
+        table = new Node[old.length * 2];
+        for (Node<K, V> head : old) {
+            while (head != null) {
+                final Node<K, V> next = head.nextInBucket;
+                final int bucket = head.hash & (table.length - 1);
+                head.nextInBucket = table[bucket];
+                table[bucket] = head;
+                head = next;
+            }
+        }
+    }
+
+    private static <K, V> Node<K, V> sentinel() {
+        final Node<K, V> sentinel = new Node<>(null, 0);
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    private static <K, V> void linkLast(final Node<K, V> list, final Node<K, V> node) {
+        node.previous = list.previous;
+        node.next = list;
+        list.previous.next = node;
+        list.previous = node;
+    }
+
+    private static <K, V> void unlink(final Node<K, V> node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by the segments of a {@linkplain BoundedCache}, which threads can update without contending with each other.
+ */
+class CacheStatistics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    CacheStats snapshot() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+}
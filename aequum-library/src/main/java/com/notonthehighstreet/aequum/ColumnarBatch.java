@@ -0,0 +1,213 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ *     The equality fields of a batch of rows, obtained through {@linkplain EqualsHashCode#toColumns(List)}, extracted once into a column per field.
+ *     Primitive fields are held in {@code int[]}, {@code long[]} or {@code double[]} columns, and every other field is dictionary encoded so that each
+ *     distinct value has an {@code int} id. Hash codes, equality, de-duplication and sorting then work on the columns rather than calling the getters
+ *     of each row again, with the same results as the definition gives for the rows themselves.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  ColumnarBatch&lt;Sale&gt; batch = SALE_EQUALS_HASH_CODE.toColumns(sales);
+ *  for (int row : batch.sortedDistinct()) {
+ *      ...
+ *  }
+ * </pre>
+ * @param <T> Type that the equality and hash codes should be calculated on.
+ */
+public class ColumnarBatch<T> {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final List<T> rows;
+    private final BatchColumn[] columns;
+    private final boolean comparable;
+
+    ColumnarBatch(final EqualsHashCode<T> definition, final List<? extends T> rows) {
+        this.rows = new ArrayList<>(rows);
+        this.comparable = definition instanceof ComparableEqualsHashCode;
+
+        final FieldValue<T>[] fields = definition.getFields();
+        this.columns = new BatchColumn[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = fields[i].toColumn(this.rows, comparable);
+        }
+    }
+
+    /**
+     * The number of rows in the batch.
+     * @return The number of rows.
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Get a row of the batch.
+     * @param row Index of the row.
+     * @return The row.
+     */
+    public T get(final int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Calculate the hash code of every row, column by column.
+     * @return The hash codes, which are the same as {@linkplain EqualsHashCode#toHashCode(Object)} gives for each row.
+     */
+    public int[] hashCodes() {
+        final int[] hashes = new int[rows.size()];
+        Arrays.fill(hashes, 1);
+        for (final BatchColumn column : columns) {
+            column.hashInto(hashes);
+        }
+        return hashes;
+    }
+
+    /**
+     * Check whether two rows of the batch are equal.
+     * @param row Index of the first row.
+     * @param otherRow Index of the second row.
+     * @return True if they are equal, false otherwise.
+     */
+    public boolean isEqual(final int row, final int otherRow) {
+        for (final BatchColumn column : columns) {
+            if (!column.isEqual(row, otherRow)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the first row of each group of equal rows.
+     * @return Indexes of the rows, in ascending order.
+     */
+    public int[] distinct() {
+        final int[] hashes = hashCodes();
+        final int[] table = new int[OpenAddressingTable.capacityFor(hashes.length)];
+        Arrays.fill(table, -1);
+        final int mask = table.length - 1;
+
+        final int[] distinct = new int[hashes.length];
+        int size = 0;
+        for (int row = 0; row < hashes.length; row++) {
+            int index = OpenAddressingTable.mix(hashes[row]) & mask;
+            while (table[index] >= 0 && (hashes[table[index]] != hashes[row] || !isEqual(table[index], row))) {
+                index = (index + 1) & mask;
+            }
+            if (table[index] < 0) {
+                table[index] = row;
+                distinct[size++] = row;
+            }
+        }
+        return Arrays.copyOf(distinct, size);
+    }
+
+    /**
+     * Sort the rows of the batch in the order of the definition, comparing dictionary encoded fields by the rank of their values. The sort is stable.
+     * @return Indexes of the rows, in sorted order.
+     * @throws IllegalStateException if the batch was not created from a {@linkplain ComparableEqualsHashCode}.
+     */
+    public int[] sorted() {
+        final int[] order = new int[rows.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        return sort(order);
+    }
+
+    /**
+     * Sort the first row of each group of equal rows in the order of the definition.
+     * @return Indexes of the rows, in sorted order.
+     * @throws IllegalStateException if the batch was not created from a {@linkplain ComparableEqualsHashCode}.
+     * @see #distinct()
+     * @see #sorted()
+     */
+    public int[] sortedDistinct() {
+        return sort(distinct());
+    }
+
+    private int[] sort(final int[] order) {
+        if (!comparable) {
+            throw new IllegalStateException("Rows can only be sorted by a ComparableEqualsHashCode");
+        }
+        mergeSort(order.clone(), order, 0, order.length);
+        return order;
+    }
+
+    /**
+     * Stable merge sort of {@code target[from, until)}, using {@code source} as scratch space which starts as a copy of {@code target}.
+     */
+    private void mergeSort(final int[] source, final int[] target, final int from, final int until) {
+        if (until - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < until; i++) {
+                final int row = target[i];
+                int j = i - 1;
+                while (j >= from && compare(target[j], row) > 0) {
+                    target[j + 1] = target[j];
+                    j--;
+                }
+                target[j + 1] = row;
+            }
+            return;
+        }
+
+        final int middle = (from + until) >>> 1;
+        mergeSort(target, source, from, middle);
+        mergeSort(target, source, middle, until);
+
+        int left = from;
+        int right = middle;
+        for (int i = from; i < until; i++) {
+            if (right >= until || left < middle && compare(source[left], source[right]) <= 0) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    private int compare(final int row, final int otherRow) {
+        for (final BatchColumn column : columns) {
+            final int result = column.compare(row, otherRow);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,164 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ *     Utility class that allows {@linkplain Object#equals(Object) equals}, {@linkplain Object#hashCode() hashCode} and {@linkplain Comparable#compareTo(Object)} methods to be
+ *     written simply and quickly.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  private static final ComparableEqualsHashCode&lt;DeliveryGroup&gt; EQUALS_HASH_CODE = Aequum.builder(Example.class)
+ *      .withComparableField(o -&gt; o.exampleOne)
+ *      .withComparableField(Example::getExampleTwo)
+ *      .build();
+ * </pre>
+ * <pre>
+ *
+ * &#64;Override
+ * public int compareTo(Example o) {
+ *   return EQUALS_HASH_CODE.compareTo(this, o);
+ * }
+ *
+ * &#64;Override
+ * public boolean equals(Object o) {
+ *   return EQUALS_HASH_CODE.isEqual(this, o);
+ * }
+ *
+ * &#64;Override
+ * public int hashCode() {
+ *    return EQUALS_HASH_CODE.toHashCode(this);
+ * }
+ * </pre>
+ * @param <T> Type that the equality and hash codes should be calculated on.
+ */
+public class ComparableEqualsHashCode<T> extends EqualsHashCode<T> {
+
+    private final ComparableFieldValue<T>[] comparableFields;
+
+    @SuppressWarnings("unchecked")
+    ComparableEqualsHashCode(final Collection<ComparableFieldValue<T>> fields, final Class<T> expectedType, final boolean exactType) {
+        super(fields, expectedType, exactType);
+
+        this.comparableFields = fields.stream().filter(FieldValue::isIncludedInEquality).toArray(ComparableFieldValue[]::new);
+    }
+
+    /**
+     * Compare two objects to each other for ordering.
+     * @param thisObject <code>this</code> object.
+     * @param thatObject Object to compare it to.
+     * @return a negative integer, zero, or a positive integer as the first argument is less than, equal to, or greater than the second.
+     */
+    public int compare(final T thisObject, final T thatObject) {
+        return compareFrom(0, thisObject, thatObject);
+    }
+
+    /**
+     * Compare two objects on the fields from the given index onwards.
+     */
+    int compareFrom(final int firstField, final T thisObject, final T thatObject) {
+        for (int i = firstField; i < comparableFields.length; i++) {
+            final int result = comparableFields[i].compare(thisObject, thatObject);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Find the first {@code k} objects in the order of this definition, giving the same result as sorting them with {@linkplain #compare(Object, Object)}
+     * and keeping the first {@code k} but holding no more than {@code k} objects at a time. Objects which compare as equal are kept in the order they
+     * are encountered. A parallel stream is split into a heap per thread which are merged at the end.
+     * @param objects Objects to select from.
+     * @param k Number of objects to select.
+     * @return The selected objects, in order.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public List<T> topK(final Stream<? extends T> objects, final int k) {
+        return objects.collect(toTopK(k));
+    }
+
+    /**
+     * Find the first {@code k} objects in the order of this definition.
+     * @param objects Objects to select from.
+     * @param k Number of objects to select.
+     * @return The selected objects, in order.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     * @see #topK(Stream, int)
+     */
+    public List<T> topK(final Iterable<? extends T> objects, final int k) {
+        final TopKHeap<T> heap = new TopKHeap<>(this, requireNonNegative(k));
+        for (final T object : objects) {
+            heap.offer(object);
+        }
+        return heap.toList();
+    }
+
+    /**
+     * Collector which finds the first {@code k} objects in the order of this definition.
+     * @param k Number of objects to select.
+     * @return A collector producing the selected objects, in order.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     * @see #topK(Stream, int)
+     */
+    public Collector<T, ?, List<T>> toTopK(final int k) {
+        requireNonNegative(k);
+        return Collector.of(() -> new TopKHeap<>(this, k), TopKHeap::offer, TopKHeap::merge, TopKHeap::toList);
+    }
+
+    private static int requireNonNegative(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        return k;
+    }
+
+    ComparableFieldValue<T>[] getComparableFields() {
+        return comparableFields;
+    }
+
+    /**
+     * Create a view over some of the fields used for equality, which can be used to group, join or order objects on those fields.
+     * @param fieldIndexes Indexes of the fields within {@linkplain #getFieldNames()}, in the order they should be used.
+     * @return The projection.
+     * @throws IllegalArgumentException if no indexes are given or an index is out of range.
+     */
+    @Override
+    public ComparableProjection<T> project(final int... fieldIndexes) {
+        return new ComparableProjection<>(select(comparableFields, fieldIndexes));
+    }
+
+}
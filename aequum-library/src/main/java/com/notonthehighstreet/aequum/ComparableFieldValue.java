@@ -0,0 +1,37 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+class ComparableFieldValue<T> extends FieldValue<T> {
+    private final Comparator comparator;
+
+    ComparableFieldValue(final boolean includedInEquality, final SerializableFunction<T, ?> field, final Comparator comparator,
+                         final Function<T, ?> toStringValue) {
+        super(includedInEquality, field, toStringValue);
+        this.comparator = comparator;
+    }
+
+    ComparableFieldValue(final boolean includedInEquality, final Function<T, ?> field, final String name, final Comparator comparator,
+                         final Function<T, ?> toStringValue) {
+        super(includedInEquality, field, name, toStringValue);
+        this.comparator = comparator;
+    }
+
+    public Comparator getComparator() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    int compare(final T thisObject, final T thatObject) {
+        return comparator.compare(getField().apply(thisObject), getField().apply(thatObject));
+    }
+
+    /**
+     * Compare the field of the object to a value of the field's type.
+     */
+    @SuppressWarnings("unchecked")
+    int compareToValue(final T thisObject, final Object value) {
+        return comparator.compare(getField().apply(thisObject), value);
+    }
+}
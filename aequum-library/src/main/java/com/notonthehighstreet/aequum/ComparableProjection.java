@@ -0,0 +1,59 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/**
+ * View of a subset of the fields of a {@linkplain ComparableEqualsHashCode}, obtained through {@linkplain ComparableEqualsHashCode#project(int...)},
+ * which can also order rows on those fields.
+ * @param <T> Type that the equality and hash codes should be calculated on.
+ */
+public class ComparableProjection<T> extends Projection<T> {
+
+    private final ComparableFieldValue<T>[] comparableFields;
+
+    ComparableProjection(final ComparableFieldValue<T>[] fields) {
+        super(fields);
+
+        this.comparableFields = fields;
+    }
+
+    /**
+     * Compare the projected fields of two objects for ordering.
+     * @param thisObject <code>this</code> object.
+     * @param thatObject Object to compare it to.
+     * @return a negative integer, zero, or a positive integer as the first argument is less than, equal to, or greater than the second.
+     */
+    public int compare(final T thisObject, final T thatObject) {
+        for (final ComparableFieldValue<T> field : comparableFields) {
+            final int result = field.compare(thisObject, thatObject);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+}
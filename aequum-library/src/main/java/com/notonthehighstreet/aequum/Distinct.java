@@ -0,0 +1,158 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * <p>
+ *     Removes duplicates from a sequence of objects, where duplicates are decided by an {@linkplain EqualsHashCode} rather than the objects' own
+ *     {@linkplain Object#equals(Object) equals} method. Unlike {@linkplain java.util.stream.Stream#distinct()}, the amount of memory used can be bounded
+ *     by either only remembering the most recently seen objects or by using a probabilistic filter.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  final List&lt;Event&gt; unique = events.stream()
+ *      .filter(Distinct.windowed(EQUALS_HASH_CODE, 10_000))
+ *      .collect(toList());
+ *
+ *  final List&lt;Event&gt; alsoUnique = events.stream()
+ *      .collect(Distinct.toList(() -&gt; Distinct.exact(EQUALS_HASH_CODE)));
+ * </pre>
+ * <p>
+ *     Instances are not thread safe; use {@linkplain #toList(Supplier)} for parallel streams.
+ * </p>
+ * @param <T> Type of the objects being de-duplicated.
+ */
+public abstract class Distinct<T> implements Predicate<T> {
+
+    Distinct() {
+    }
+
+    /**
+     * Create a filter which remembers every distinct object it has seen. Only the objects and their hash codes are kept, with
+     * {@linkplain EqualsHashCode#isEqual(Object, Object) isEqual} only being called when two hash codes collide.
+     * @param definition Definition of equality between the objects.
+     * @param <T> Type of the objects being de-duplicated.
+     * @return A filter which accepts each distinct object exactly once.
+     */
+    public static <T> Distinct<T> exact(final EqualsHashCode<T> definition) {
+        return new ExactDistinct<>(definition);
+    }
+
+    /**
+     * Create a filter which only remembers the last {@code window} objects it accepted. An object is rejected if an equal object is within that window.
+     * @param definition Definition of equality between the objects.
+     * @param window Number of accepted objects to remember.
+     * @param <T> Type of the objects being de-duplicated.
+     * @return A filter which accepts an object unless it is equal to one of the last {@code window} accepted objects.
+     */
+    public static <T> Distinct<T> windowed(final EqualsHashCode<T> definition, final int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        return new WindowedDistinct<>(definition, window);
+    }
+
+    /**
+     * Create a filter which uses a fixed amount of memory, sized from the expected number of distinct objects and the acceptable false positive rate.
+     * Duplicates are always rejected, but a distinct object may be wrongly rejected with roughly the given probability. The objects seen are held in a
+     * {@linkplain BloomFilter}.
+     * @param definition Definition of equality between the objects.
+     * @param expectedInsertions Expected number of distinct objects.
+     * @param falsePositiveRate Acceptable probability of a distinct object being rejected, between 0 and 1 exclusive.
+     * @param <T> Type of the objects being de-duplicated.
+     * @return A filter which accepts each distinct object at most once.
+     */
+    public static <T> Distinct<T> approximate(final EqualsHashCode<T> definition, final long expectedInsertions, final double falsePositiveRate) {
+        return new ApproximateDistinct<>(definition, expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Create a {@linkplain Collector} which collects the objects accepted by a filter into a list, in encounter order. A new filter is created for each
+     * collection and for each partition of a parallel stream.
+     * @param filter Supplier of the filter, e.g. {@code () -> Distinct.exact(EQUALS_HASH_CODE)}.
+     * @param <T> Type of the objects being de-duplicated.
+     * @return A {@linkplain Collector} of the accepted objects.
+     */
+    public static <T> Collector<T, ?, List<T>> toList(final Supplier<Distinct<T>> filter) {
+        return Collector.of(
+                () -> new Accumulator<>(filter.get()),
+                Accumulator::accept,
+                Accumulator::combine,
+                Accumulator::result);
+    }
+
+    /**
+     * Record the object as seen.
+     * @param object Object to record.
+     * @return True if the object was not seen before and should be kept, false if it's a duplicate.
+     * @throws NullPointerException if the object is {@code null}.
+     */
+    public abstract boolean add(T object);
+
+    /**
+     * Same as {@linkplain #add(Object)}, allowing this to be used with {@linkplain java.util.stream.Stream#filter(Predicate)}.
+     * @param object Object to record.
+     * @return True if the object was not seen before and should be kept, false if it's a duplicate.
+     * @throws NullPointerException if the object is {@code null}.
+     */
+    @Override
+    public boolean test(final T object) {
+        return add(object);
+    }
+
+    private static class Accumulator<T> {
+        private final Distinct<T> filter;
+        private final List<T> accepted = new ArrayList<>();
+
+        Accumulator(final Distinct<T> filter) {
+            this.filter = filter;
+        }
+
+        void accept(final T object) {
+            if (filter.add(object)) {
+                accepted.add(object);
+            }
+        }
+
+        Accumulator<T> combine(final Accumulator<T> other) {
+            other.accepted.forEach(this::accept);
+            return this;
+        }
+
+        List<T> result() {
+            return accepted;
+        }
+    }
+}
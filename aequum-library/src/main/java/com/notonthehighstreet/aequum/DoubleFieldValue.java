@@ -0,0 +1,68 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A field read as a primitive {@code double}, so that equality, hash code and comparison don't box the value. The results are the same as for the
+ * boxed {@linkplain Double}, so {@code NaN} equals itself and {@code 0.0} doesn't equal {@code -0.0}.
+ */
+class DoubleFieldValue<T> extends ComparableFieldValue<T> {
+    private final ToDoubleFunction<T> doubleField;
+
+    DoubleFieldValue(final SerializableToDoubleFunction<T> field, final Function<T, ?> toStringValue) {
+        this(field, getAppropriateFieldName(field), toStringValue);
+    }
+
+    DoubleFieldValue(final ToDoubleFunction<T> field, final String name, final Function<T, ?> toStringValue) {
+        super(true, field::applyAsDouble, name, Comparator.naturalOrder(), toStringValue);
+        this.doubleField = field;
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return Double.doubleToLongBits(doubleField.applyAsDouble(thisObject)) == Double.doubleToLongBits(doubleField.applyAsDouble(thatObject));
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof DoubleFieldValue;
+    }
+
+    @Override
+    <U> boolean isEqual(final T thisObject, final FieldValue<U> thatField, final U thatObject) {
+        final double thatValue = ((DoubleFieldValue<U>) thatField).doubleField.applyAsDouble(thatObject);
+        return Double.doubleToLongBits(doubleField.applyAsDouble(thisObject)) == Double.doubleToLongBits(thatValue);
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        return Double.hashCode(doubleField.applyAsDouble(thisObject));
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        return LongHashing.mix(Double.doubleToLongBits(doubleField.applyAsDouble(thisObject)));
+    }
+
+    @Override
+    int compare(final T thisObject, final T thatObject) {
+        return Double.compare(doubleField.applyAsDouble(thisObject), doubleField.applyAsDouble(thatObject));
+    }
+
+    @Override
+    int compareToValue(final T thisObject, final Object value) {
+        return Double.compare(doubleField.applyAsDouble(thisObject), (Double) value);
+    }
+
+    @Override
+    BatchColumn toColumn(final List<? extends T> rows, final boolean ranked) {
+        final double[] values = new double[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = doubleField.applyAsDouble(rows.get(i));
+        }
+        return new BatchColumn.DoubleColumn(values);
+    }
+}
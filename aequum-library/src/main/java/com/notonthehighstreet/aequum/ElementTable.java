@@ -0,0 +1,59 @@
+package com.notonthehighstreet.aequum;
+
+/**
+ * Open addressing hash table of elements, keyed by an {@linkplain EqualsHashCode} rather than the elements' own equality. The hash code of each
+ * element is cached alongside it so that {@linkplain EqualsHashCode#isEqual(Object, Object) isEqual} is only called when two hash codes collide.
+ */
+class ElementTable<T> extends OpenAddressingTable {
+
+    private final EqualsHashCode<T> definition;
+
+    ElementTable(final EqualsHashCode<T> definition, final int expectedSize) {
+        super(expectedSize, false);
+        this.definition = definition;
+    }
+
+    /**
+     * Add the element to the table if there isn't an equal element already present. A {@code null} slot marks an empty slot, so elements can't be
+     * {@code null}.
+     * @return true if the element was added.
+     */
+    boolean add(final T element) {
+        if (element == null) {
+            throw new NullPointerException("Null elements are not supported");
+        }
+        final int hash = definition.toHashCode(element);
+
+        int index = slot(hash);
+        while (!isEmpty(index)) {
+            if (hashAt(index) == hash && definition.isEqual(element(index), element)) {
+                return false;
+            }
+            index = next(index);
+        }
+
+        insert(index, hash, element, 0);
+        return true;
+    }
+
+    /**
+     * Remove the exact instance from the table, as previously passed to {@linkplain #add(Object)}.
+     */
+    void removeInstance(final T element) {
+        final int hash = definition.toHashCode(element);
+
+        int index = slot(hash);
+        while (!isEmpty(index)) {
+            if (keyAt(index) == element) {
+                delete(index);
+                return;
+            }
+            index = next(index);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(final int index) {
+        return (T) keyAt(index);
+    }
+}
@@ -0,0 +1,296 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * <p>
+ *     Utility class that allows {@linkplain Object#equals(Object) equals} and {@linkplain Object#hashCode() hashCode} methods to be written simply and quickly.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  private static final EqualsHashCode&lt;DeliveryGroup&gt; EQUALS_HASH_CODE = Aequum.builder(Pojo.class)
+ *      .withField(o -&gt; o.fieldOne)
+ *      .withField(Pojo::getFieldTwo)
+ *      .build();
+ * </pre>
+ * <pre>
+ *
+ * &#64;Override
+ * public boolean equals(Object o) {
+ *   return EQUALS_HASH_CODE.isEqual(this, o);
+ * }
+ *
+ * &#64;Override
+ * public int hashCode() {
+ *    return EQUALS_HASH_CODE.toHashCode(this);
+ * }
+ * </pre>
+ * @param <T> Type that the equality and hash codes should be calculated on.
+ */
+public class EqualsHashCode<T> {
+
+    private final SortedMap<String, Function<T, ?>> fieldNames;
+    private final List<FieldValue<T>> definedFields;
+    private final FieldValue<T>[] fields;
+    private final List<String> equalityFieldNames;
+    private final Class<T> expectedType;
+    private final boolean exactType;
+
+    @SuppressWarnings("unchecked")
+    EqualsHashCode(final Collection<? extends FieldValue<T>> fields, final Class<T> expectedType, final boolean exactType) {
+        this.definedFields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.fields = fields.stream().filter(FieldValue::isIncludedInEquality).toArray(FieldValue[]::new);
+        this.equalityFieldNames = Collections.unmodifiableList(Arrays.stream(this.fields).map(FieldValue::getName).collect(toList()));
+        this.expectedType = expectedType;
+        this.exactType = exactType;
+
+        fieldNames = fields.stream()
+                .filter(FieldValue::isIncludedInToString)
+                .collect(collectingAndThen(toMap(FieldValue::getName, FieldValue::getToStringValue), TreeMap::new));
+    }
+
+    /**
+     * Check whether the given objects are equal. Unless the definition was built with exact type equality, {@code thatObject} only has to be an instance
+     * of the expected type, so a subclass which adds fields should either be built with exact type equality or not be compared with its parent.
+     * @param thisObject <code>this</code> object.
+     * @param thatObject Object to compare it to.
+     * @return True if they are equal, false otherwise.
+     * @see Object#equals(Object)
+     */
+    public boolean isEqual(final T thisObject, final Object thatObject) {
+        if (thisObject == thatObject) {
+            return true;
+        }
+        if (exactType ? thatObject == null || thisObject.getClass() != thatObject.getClass() : !expectedType.isInstance(thatObject)) {
+            return false;
+        }
+
+        return fieldsEqual(thisObject, expectedType.cast(thatObject));
+    }
+
+    boolean fieldsEqual(final T thisObject, final T thatObject) {
+        for (final FieldValue<T> field : fields) {
+            if (!field.isEqual(thisObject, thatObject)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find which of the fields used for equality differ between two objects. Bit {@code i} of the result is set if the field at index {@code i} of
+     * {@linkplain #getFieldNames()} differs, using the same equality as {@linkplain #isEqual(Object, Object)}.
+     * @param thisObject <code>this</code> object.
+     * @param thatObject Object to compare it to.
+     * @return Bitmask of the differing fields, which is zero if the objects are equal.
+     * @throws IllegalStateException if there are more than 64 fields, in which case {@linkplain #diffBits(Object, Object)} should be used.
+     */
+    public long diff(final T thisObject, final T thatObject) {
+        if (fields.length > Long.SIZE) {
+            throw new IllegalStateException("Too many fields for a long bitmask: " + fields.length);
+        }
+
+        long diff = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].isEqual(thisObject, thatObject)) {
+                diff |= 1L << i;
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Find which of the fields used for equality differ between two objects, for any number of fields. Bit {@code i} of the result is set if the field at
+     * index {@code i} of {@linkplain #getFieldNames()} differs, using the same equality as {@linkplain #isEqual(Object, Object)}.
+     * @param thisObject <code>this</code> object.
+     * @param thatObject Object to compare it to.
+     * @return The differing fields, which is empty if the objects are equal.
+     */
+    public BitSet diffBits(final T thisObject, final T thatObject) {
+        final BitSet diff = new BitSet(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].isEqual(thisObject, thatObject)) {
+                diff.set(i);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * The names of the fields used for equality, in the order they were defined. The index of each name is its bit in {@linkplain #diff(Object, Object)}.
+     * @return The field names.
+     */
+    public List<String> getFieldNames() {
+        return equalityFieldNames;
+    }
+
+    /**
+     * Convert the result of {@linkplain #diff(Object, Object)} back into field names.
+     * @param diff Bitmask of fields.
+     * @return The names of the fields whose bit is set, in the order they were defined.
+     */
+    public List<String> getFieldNames(final long diff) {
+        final List<String> names = new ArrayList<>(Long.bitCount(diff));
+        for (int i = 0; i < equalityFieldNames.size() && i < Long.SIZE; i++) {
+            if ((diff & (1L << i)) != 0) {
+                names.add(equalityFieldNames.get(i));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Convert the result of {@linkplain #diffBits(Object, Object)} back into field names, for any number of fields.
+     * @param diff The differing fields.
+     * @return The names of the fields whose bit is set, in the order they were defined.
+     */
+    public List<String> getFieldNames(final BitSet diff) {
+        final List<String> names = new ArrayList<>(diff.cardinality());
+        for (int i = diff.nextSetBit(0); i >= 0 && i < equalityFieldNames.size(); i = diff.nextSetBit(i + 1)) {
+            names.add(equalityFieldNames.get(i));
+        }
+        return names;
+    }
+
+    /**
+     * Create a view over some of the fields used for equality, which can be used to group or join objects on those fields.
+     * @param fieldIndexes Indexes of the fields within {@linkplain #getFieldNames()}, in the order they should be used.
+     * @return The projection.
+     * @throws IllegalArgumentException if no indexes are given or an index is out of range.
+     */
+    public Projection<T> project(final int... fieldIndexes) {
+        return new Projection<>(select(fields, fieldIndexes));
+    }
+
+    /**
+     * Extract the fields used for equality from every row into columns, so that the rows can be hashed, compared, de-duplicated and, for a
+     * {@linkplain ComparableEqualsHashCode}, sorted column by column.
+     * @param rows Rows to extract, none of which may be {@code null}.
+     * @return The batch of columns.
+     */
+    public ColumnarBatch<T> toColumns(final List<? extends T> rows) {
+        return new ColumnarBatch<>(this, rows);
+    }
+
+    static <F> F[] select(final F[] fields, final int... fieldIndexes) {
+        if (fieldIndexes.length == 0) {
+            throw new IllegalArgumentException("At least one field must be projected");
+        }
+
+        final F[] selected = Arrays.copyOf(fields, fieldIndexes.length);
+        for (int i = 0; i < fieldIndexes.length; i++) {
+            if (fieldIndexes[i] < 0 || fieldIndexes[i] >= fields.length) {
+                throw new IllegalArgumentException("Field index " + fieldIndexes[i] + " is out of range for " + fields.length + " fields");
+            }
+            selected[i] = fields[fieldIndexes[i]];
+        }
+        return selected;
+    }
+
+    FieldValue<T>[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Every field in the order it was defined, including those only used for {@code toString}.
+     */
+    List<FieldValue<T>> getDefinedFields() {
+        return definedFields;
+    }
+
+    Class<T> getExpectedType() {
+        return expectedType;
+    }
+
+    boolean isExactType() {
+        return exactType;
+    }
+
+    /**
+     * Calculate the hash code for the given object.
+     * @param thisObject <code>this</code> object.
+     * @return The hash code value.
+     * @see Object#hashCode()
+     */
+    public int toHashCode(final T thisObject) {
+        // Same as Arrays.deepHashCode of the field values
+        int result = 1;
+        for (final FieldValue<T> field : fields) {
+            result = 31 * result + field.hash(thisObject);
+        }
+        return result;
+    }
+
+    /**
+     * Calculate a 64 bit hash code for the given object, with each field's value mixed from its full contents rather than its 32 bit hash code where
+     * it is a primitive, string, {@linkplain java.util.Optional} or array. Equal objects have the same result. This is intended for structures such as
+     * {@linkplain BloomFilter} which need more bits than {@linkplain #toHashCode(Object)} provides.
+     * @param thisObject <code>this</code> object.
+     * @return The 64 bit hash code.
+     */
+    public long toLongHashCode(final T thisObject) {
+        long result = fields.length;
+        for (final FieldValue<T> field : fields) {
+            result = LongHashing.mix(result + field.longHash(thisObject));
+        }
+        return result;
+    }
+
+    /**
+     * Produce a {@code toString} value for the given object.
+     * @param thisObject {@code this} object.
+     * @return The string representation.
+     * @see Object#toString()
+     */
+    public String toString(final T thisObject) {
+        return fieldNames.entrySet().stream()
+                .map(e -> e.getKey() + "=" + arraySafeToString(e.getValue().apply(thisObject)))
+                .collect(joining(", ", thisObject.getClass().getSimpleName() + "{", "}"));
+    }
+
+    private String arraySafeToString(final Object o) {
+        return o instanceof Object[] ? Arrays.toString((Object[]) o) : Objects.toString(o);
+    }
+}
@@ -0,0 +1,15 @@
+package com.notonthehighstreet.aequum;
+
+class ExactDistinct<T> extends Distinct<T> {
+
+    private final ElementTable<T> seen;
+
+    ExactDistinct(final EqualsHashCode<T> definition) {
+        this.seen = new ElementTable<>(definition, 0);
+    }
+
+    @Override
+    public boolean add(final T object) {
+        return seen.add(object);
+    }
+}
@@ -0,0 +1,292 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     Sorts more objects than fit in memory, using the ordering of a {@linkplain ComparableEqualsHashCode}. Objects are gathered into runs which are
+ *     sorted in memory and spilled to temporary files in the encoding of a {@linkplain RecordCodec}. The runs are then merged, a bounded number at a
+ *     time, with the merge reading each run through a buffered window. The sort is stable and the temporary files are deleted once it finishes.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  final ExternalSort&lt;Event&gt; sort = ExternalSort.builder(EQUALS_HASH_CODE, EVENT_CODEC)
+ *      .withMemoryBudget(256 * 1024 * 1024)
+ *      .withFanIn(32)
+ *      .build();
+ *
+ *  sort.sort(events, writer::write);
+ * </pre>
+ * @param <T> Type of the objects being sorted.
+ */
+public class ExternalSort<T> {
+
+    private static final String PREFIX = "aequum-sort-";
+    private static final String SUFFIX = ".run";
+
+    private final ComparableEqualsHashCode<T> definition;
+    private final RecordCodec<T> codec;
+    private final long memoryBudget;
+    private final int runSize;
+    private final int fanIn;
+    private final Path tempDirectory;
+    private final int bufferSize;
+
+    private ExternalSort(final Builder<T> builder) {
+        this.definition = builder.definition;
+        this.codec = builder.codec;
+        this.memoryBudget = builder.memoryBudget;
+        this.runSize = builder.runSize;
+        this.fanIn = builder.fanIn;
+        this.tempDirectory = builder.tempDirectory;
+        // Each run being merged, plus the output of an intermediate merge, gets an equal share of the budget
+        this.bufferSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget / (fanIn + 1)));
+    }
+
+    /**
+     * Builder for an {@linkplain ExternalSort}.
+     * @param <T> Type of the objects being sorted.
+     */
+    public static class Builder<T> {
+        private final ComparableEqualsHashCode<T> definition;
+        private final RecordCodec<T> codec;
+        private long memoryBudget = 64L * 1024 * 1024;
+        private int runSize = 1_000_000;
+        private int fanIn = 64;
+        private Path tempDirectory;
+
+        private Builder(final ComparableEqualsHashCode<T> definition, final RecordCodec<T> codec) {
+            this.definition = definition;
+            this.codec = codec;
+        }
+
+        /**
+         * Set the number of encoded bytes to hold in memory before a run is spilled to disk, which is also shared between the runs being merged.
+         * Only the size given by {@linkplain RecordCodec#encodedSize(Object)} is counted, not the decoded objects of the run being gathered, so the
+         * heap those objects take up comes on top of the budget. Defaults to 64MiB.
+         * @param bytes Number of bytes.
+         * @return This builder.
+         */
+        public Builder<T> withMemoryBudget(final long bytes) {
+            if (bytes <= 0) {
+                throw new IllegalArgumentException("Memory budget must be positive: " + bytes);
+            }
+            this.memoryBudget = bytes;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of objects in a run, whatever their size. Defaults to 1,000,000.
+         * @param records Number of objects.
+         * @return This builder.
+         */
+        public Builder<T> withRunSize(final int records) {
+            if (records <= 0) {
+                throw new IllegalArgumentException("Run size must be positive: " + records);
+            }
+            this.runSize = records;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of runs merged at once. If there are more runs than this, they are merged in several passes. Defaults to 64.
+         * @param runs Number of runs.
+         * @return This builder.
+         */
+        public Builder<T> withFanIn(final int runs) {
+            if (runs < 2) {
+                throw new IllegalArgumentException("Fan in must be at least 2: " + runs);
+            }
+            this.fanIn = runs;
+            return this;
+        }
+
+        /**
+         * Set the directory the runs are spilled to. Defaults to the system's temporary directory.
+         * @param directory Directory for temporary files.
+         * @return This builder.
+         */
+        public Builder<T> withTempDirectory(final Path directory) {
+            this.tempDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Build the {@linkplain ExternalSort}.
+         * @return A newly constructed {@linkplain ExternalSort}.
+         */
+        public ExternalSort<T> build() {
+            return new ExternalSort<>(this);
+        }
+    }
+
+    /**
+     * Creates a new builder for sorting objects.
+     * @param definition Definition of the ordering of the objects.
+     * @param codec Encoding of the objects when they are spilled to disk.
+     * @param <T> Type of the objects being sorted.
+     * @return New builder for the sort.
+     */
+    public static <T> Builder<T> builder(final ComparableEqualsHashCode<T> definition, final RecordCodec<T> codec) {
+        return new Builder<>(definition, codec);
+    }
+
+    /**
+     * Sort the objects, passing them to the output in order. If they all fit within a single run, nothing is written to disk.
+     * @param input Objects to sort.
+     * @param output Receives the objects in sorted order.
+     * @throws UncheckedIOException if the temporary files can't be written or read.
+     */
+    public void sort(final Iterable<? extends T> input, final Consumer<? super T> output) {
+        final List<Path> created = new ArrayList<>();
+        try {
+            List<Path> runs = new ArrayList<>();
+            final List<T> run = new ArrayList<>();
+            long runBytes = 0;
+            for (final T value : input) {
+                run.add(value);
+                runBytes += codec.encodedSize(value);
+                if (run.size() >= runSize || runBytes >= memoryBudget) {
+                    runs.add(spill(run, created));
+                    run.clear();
+                    runBytes = 0;
+                }
+            }
+
+            if (runs.isEmpty()) {
+                run.sort(definition::compare);
+                run.forEach(output);
+                return;
+            }
+            if (!run.isEmpty()) {
+                runs.add(spill(run, created));
+                run.clear();
+            }
+
+            while (runs.size() > fanIn) {
+                runs = mergePass(runs, created);
+            }
+            merge(runs, output::accept);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (final Path file : created) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // Left for the operating system to tidy up
+                }
+            }
+        }
+    }
+
+    private Path spill(final List<T> run, final List<Path> created) throws IOException {
+        run.sort(definition::compare);
+
+        final Path file = createRun(created);
+        try (RunWriter<T> writer = new RunWriter<>(codec, file, bufferSize)) {
+            for (final T value : run) {
+                writer.write(value);
+            }
+        }
+        return file;
+    }
+
+    private List<Path> mergePass(final List<Path> runs, final List<Path> created) throws IOException {
+        final List<Path> merged = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i += fanIn) {
+            final List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+
+            final Path file = createRun(created);
+            try (RunWriter<T> writer = new RunWriter<>(codec, file, bufferSize)) {
+                merge(group, writer::write);
+            }
+            for (final Path run : group) {
+                Files.delete(run);
+            }
+            merged.add(file);
+        }
+        return merged;
+    }
+
+    private void merge(final List<Path> runs, final RecordSink<T> output) throws IOException {
+        final Comparator<RunReader<T>> byHead = (a, b) -> {
+            final int result = definition.compare(a.head(), b.head());
+            return result != 0 ? result : Integer.compare(a.order(), b.order());
+        };
+        final PriorityQueue<RunReader<T>> heap = new PriorityQueue<>(runs.size(), byHead);
+        final List<RunReader<T>> readers = new ArrayList<>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                final RunReader<T> reader = new RunReader<>(codec, runs.get(i), bufferSize, i);
+                readers.add(reader);
+                if (!reader.isExhausted()) {
+                    heap.add(reader);
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                final RunReader<T> reader = heap.poll();
+                output.accept(reader.head());
+                reader.advance();
+                if (!reader.isExhausted()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            for (final RunReader<T> reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private Path createRun(final List<Path> created) throws IOException {
+        final Path file = tempDirectory == null ? Files.createTempFile(PREFIX, SUFFIX) : Files.createTempFile(tempDirectory, PREFIX, SUFFIX);
+        created.add(file);
+        return file;
+    }
+
+    private interface RecordSink<T> {
+        void accept(T value) throws IOException;
+    }
+}
@@ -17,7 +17,7 @@ class FieldIdentifyingClassVisitor extends ClassVisitor {
     private Optional<String> fieldName = Optional.empty();
 
     public FieldIdentifyingClassVisitor(final String name, final String signature) {
-        super(Opcodes.ASM5);
+        super(Opcodes.ASM9);
         this.name = name;
         this.signature = signature;
     }
@@ -25,7 +25,7 @@ class FieldIdentifyingClassVisitor extends ClassVisitor {
     @Override
     public MethodVisitor visitMethod(final int access, final String name, final String desc, final String signature, final String[] exceptions) {
         if (Objects.equals(name, this.name) && Objects.equals(desc, this.signature) && ((access & Opcodes.ACC_SYNTHETIC) == Opcodes.ACC_SYNTHETIC)) {
-            return new MethodVisitor(Opcodes.ASM5) {
+            return new MethodVisitor(Opcodes.ASM9) {
                 @Override
                 public void visitFieldInsn(final int opcode, final String owner, final String name, final String desc) {
                     super.visitFieldInsn(opcode, owner, name, desc);
@@ -0,0 +1,158 @@
+package com.notonthehighstreet.aequum;
+
+import org.objectweb.asm.ClassReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+class FieldValue<T> {
+
+    private final boolean includedInEquality;
+    private final Function<T, ?> field;
+    private final String name;
+    private final Function<T, ?> toStringValue;
+
+    FieldValue(final boolean includedInEquality, final SerializableFunction<T, ?> field, final Function<T, ?> toStringValue) {
+        this(includedInEquality, field, getAppropriateFieldName(field), toStringValue);
+    }
+
+    FieldValue(final boolean includedInEquality, final Function<T, ?> field, final String name, final Function<T, ?> toStringValue) {
+        this.includedInEquality = includedInEquality;
+        this.field = field;
+        this.name = name;
+        this.toStringValue = toStringValue;
+    }
+
+    public Function<T, ?> getField() {
+        return field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Function<T, ?> getToStringValue() {
+        return toStringValue;
+    }
+
+    public boolean isIncludedInEquality() {
+        return includedInEquality;
+    }
+
+    boolean isIncludedInToString() {
+        return true;
+    }
+
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return Objects.deepEquals(field.apply(thisObject), field.apply(thatObject));
+    }
+
+    int hash(final T thisObject) {
+        return deepHashCode(field.apply(thisObject));
+    }
+
+    long longHash(final T thisObject) {
+        return LongHashing.hash(field.apply(thisObject));
+    }
+
+    /**
+     * Whether this field can be compared to the other field, of objects of another type, by {@linkplain #isEqual(Object, FieldValue, Object)}. Both
+     * must read their values the same way so that equal values also have equal hash codes.
+     */
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField.getClass() == FieldValue.class || thatField.getClass() == ComparableFieldValue.class;
+    }
+
+    /**
+     * Check whether this field of the object is equal to a joinable field of an object of another type.
+     */
+    <U> boolean isEqual(final T thisObject, final FieldValue<U> thatField, final U thatObject) {
+        return valuesEqual(field.apply(thisObject), thatField.getField().apply(thatObject));
+    }
+
+    /**
+     * Check whether two values read from the field are equal, giving the same result as {@linkplain #isEqual(Object, Object)} on the objects they were
+     * read from.
+     */
+    boolean valuesEqual(final Object thisValue, final Object thatValue) {
+        return Objects.deepEquals(thisValue, thatValue);
+    }
+
+    /**
+     * Calculate the hash code of a value read from the field, giving the same result as {@linkplain #hash(Object)} on the object it was read from.
+     */
+    int valueHash(final Object value) {
+        return deepHashCode(value);
+    }
+
+    /**
+     * Extract the field from every row into a column, ranking its values if the column will be sorted.
+     */
+    BatchColumn toColumn(final List<? extends T> rows, final boolean ranked) {
+        return new BatchColumn.DictionaryColumn<>(this, rows, ranked);
+    }
+
+    /**
+     * The contribution of a single element to {@linkplain Arrays#deepHashCode(Object[])}.
+     */
+    static int deepHashCode(final Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) value);
+        } else if (value instanceof byte[]) {
+            return Arrays.hashCode((byte[]) value);
+        } else if (value instanceof short[]) {
+            return Arrays.hashCode((short[]) value);
+        } else if (value instanceof int[]) {
+            return Arrays.hashCode((int[]) value);
+        } else if (value instanceof long[]) {
+            return Arrays.hashCode((long[]) value);
+        } else if (value instanceof char[]) {
+            return Arrays.hashCode((char[]) value);
+        } else if (value instanceof float[]) {
+            return Arrays.hashCode((float[]) value);
+        } else if (value instanceof double[]) {
+            return Arrays.hashCode((double[]) value);
+        } else if (value instanceof boolean[]) {
+            return Arrays.hashCode((boolean[]) value);
+        }
+        return value.hashCode();
+    }
+
+    static String getAppropriateFieldName(final MethodFinder field) {
+        final MethodDetails method = field.method();
+
+        // Try the standard getter naming
+        if (method.getMethodName().startsWith("get")) {
+            return method.getMethodName().substring(3, 4).toLowerCase() + method.getMethodName().substring(4);
+        }
+
+        if (method.getMethodName().startsWith("is")) {
+            return method.getMethodName().substring(2, 3).toLowerCase() + method.getMethodName().substring(3);
+        }
+
+        // Was it a lambda?
+        if (method.getMethodName().contains("$")) {
+            return getFieldNameFromLambdaMethod(method);
+        }
+
+        // Err...
+        return method.getMethodName();
+    }
+
+    private static String getFieldNameFromLambdaMethod(final MethodDetails method) {
+        final FieldIdentifyingClassVisitor visitor = new FieldIdentifyingClassVisitor(method.getMethodName(), method.getMethodSignature());
+        try {
+            new ClassReader(method.getContainingClass()).accept(visitor, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return visitor.getFieldName().get();
+    }
+}
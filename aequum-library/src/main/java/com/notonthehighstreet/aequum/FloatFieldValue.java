@@ -0,0 +1,68 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A field read as a primitive {@code float}, so that equality, hash code and comparison don't box the value. There is no {@code ToFloatFunction}, so the
+ * value is read widened to a {@code double}, which holds every {@code float} exactly, and narrowed back. The results are the same as for the boxed
+ * {@linkplain Float}.
+ */
+class FloatFieldValue<T> extends ComparableFieldValue<T> {
+    private final ToDoubleFunction<T> floatField;
+
+    FloatFieldValue(final ToDoubleFunction<T> field, final String name, final Function<T, ?> toStringValue) {
+        super(true, o -> (float) field.applyAsDouble(o), name, Comparator.naturalOrder(), toStringValue);
+        this.floatField = field;
+    }
+
+    private float value(final T thisObject) {
+        return (float) floatField.applyAsDouble(thisObject);
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return Float.floatToIntBits(value(thisObject)) == Float.floatToIntBits(value(thatObject));
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof FloatFieldValue;
+    }
+
+    @Override
+    <U> boolean isEqual(final T thisObject, final FieldValue<U> thatField, final U thatObject) {
+        return Float.floatToIntBits(value(thisObject)) == Float.floatToIntBits(((FloatFieldValue<U>) thatField).value(thatObject));
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        return Float.hashCode(value(thisObject));
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        return LongHashing.mix(Float.floatToIntBits(value(thisObject)));
+    }
+
+    @Override
+    int compare(final T thisObject, final T thatObject) {
+        return Float.compare(value(thisObject), value(thatObject));
+    }
+
+    @Override
+    int compareToValue(final T thisObject, final Object value) {
+        return Float.compare(value(thisObject), (Float) value);
+    }
+
+    @Override
+    BatchColumn toColumn(final List<? extends T> rows, final boolean ranked) {
+        final float[] values = new float[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value(rows.get(i));
+        }
+        return new BatchColumn.FloatColumn(values);
+    }
+}
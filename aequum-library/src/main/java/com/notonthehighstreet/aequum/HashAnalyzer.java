@@ -0,0 +1,291 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Analyses how well the {@linkplain EqualsHashCode#toHashCode(Object) hash codes} of a definition are distributed over a sample of objects, in order
+ *     to spot definitions that will perform badly in hash tables before they reach production.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  final HashReport report = HashAnalyzer.analyze(EQUALS_HASH_CODE, sample, 1 &lt;&lt; 16);
+ *  assertThat(report.getCollisionRate(), lessThan(2 * report.getExpectedCollisionRate()));
+ *  assertThat(report.getLowEntropyFields(1.0), empty());
+ * </pre>
+ * <p>
+ *     It can also be run from the command line over a file of serialised samples, written one after the other by an {@linkplain java.io.ObjectOutputStream}
+ *     or as a single {@linkplain Collection}, using a definition held in a static field:
+ * </p>
+ * <pre>
+ *  java -cp ... com.notonthehighstreet.aequum.HashAnalyzer com.example.Pojo EQUALS_HASH_CODE samples.ser [tableSize]
+ * </pre>
+ * <p>
+ *     Only classes in the package of the definition's expected type, and in {@code java.lang}, {@code java.util}, {@code java.time} and
+ *     {@code java.math}, are deserialised from the file. That narrows what a malicious file can do but doesn't make deserialisation safe, so the file
+ *     should still come from a trusted source.
+ * </p>
+ */
+public class HashAnalyzer {
+
+    private static final int DEFAULT_TABLE_SIZE = 1 << 16;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+    private static final int AVALANCHE_SEARCH_LIMIT = 64;
+    private static final Set<String> SAMPLE_PACKAGES = new HashSet<>(Arrays.asList("java.lang", "java.util", "java.time", "java.math"));
+
+    private HashAnalyzer() {
+    }
+
+    /**
+     * Analyse the hash codes of the distinct objects in the sample, simulating a table with the given number of buckets which spreads the hash codes
+     * in the same way as {@linkplain java.util.HashMap}.
+     * @param definition Definition whose hash codes should be analysed.
+     * @param sample Objects representative of those the definition will be used with.
+     * @param tableSize Number of buckets in the simulated table, which is rounded up to a power of two.
+     * @param <T> Type of the objects.
+     * @return The analysis.
+     */
+    public static <T> HashReport analyze(final EqualsHashCode<T> definition, final Iterable<? extends T> sample, final int tableSize) {
+        if (tableSize <= 0 || tableSize > MAXIMUM_TABLE_SIZE) {
+            throw new IllegalArgumentException("Table size must be between 1 and " + MAXIMUM_TABLE_SIZE + ": " + tableSize);
+        }
+
+        final ElementTable<T> seen = new ElementTable<>(definition, 0);
+        final List<T> distinct = new ArrayList<>();
+        int sampleSize = 0;
+        for (final T value : sample) {
+            sampleSize++;
+            if (seen.add(value)) {
+                distinct.add(value);
+            }
+        }
+
+        // The hash code of each field of each row, stored row after row in one array rather than an array per row
+        final FieldValue<T>[] fields = definition.getFields();
+        final int[] fieldHashes = new int[Math.multiplyExact(distinct.size(), fields.length)];
+        final int[] hashes = new int[distinct.size()];
+        for (int i = 0; i < distinct.size(); i++) {
+            for (int f = 0; f < fields.length; f++) {
+                fieldHashes[i * fields.length + f] = fields[f].hash(distinct.get(i));
+            }
+            hashes[i] = combine(fieldHashes, i, fields.length);
+        }
+
+        final int buckets = Integer.highestOneBit(tableSize) == tableSize ? tableSize : Integer.highestOneBit(tableSize) << 1;
+        final int[] occupancy = new int[buckets];
+        int usedBuckets = 0;
+        int largestBucket = 0;
+        for (final int hash : hashes) {
+            final int bucket = (hash ^ (hash >>> 16)) & (buckets - 1);
+            if (occupancy[bucket]++ == 0) {
+                usedBuckets++;
+            }
+            largestBucket = Math.max(largestBucket, occupancy[bucket]);
+        }
+
+        final List<HashReport.Field> fieldReports = new ArrayList<>(fields.length);
+        for (int f = 0; f < fields.length; f++) {
+            final Map<Integer, Integer> frequencies = new HashMap<>();
+            for (int i = 0; i < distinct.size(); i++) {
+                frequencies.merge(fieldHashes[i * fields.length + f], 1, Integer::sum);
+            }
+            fieldReports.add(new HashReport.Field(fields[f].getName(), frequencies.size(), entropy(frequencies.values(), distinct.size()),
+                    avalanche(fieldHashes, fields.length, f)));
+        }
+
+        return new HashReport(sampleSize, distinct.size(), (int) Arrays.stream(hashes).distinct().count(), buckets, usedBuckets, largestBucket,
+                fieldReports);
+    }
+
+    /**
+     * Analyse the hash codes of a sample using a table of 65,536 buckets.
+     * @param definition Definition whose hash codes should be analysed.
+     * @param sample Objects representative of those the definition will be used with.
+     * @param <T> Type of the objects.
+     * @return The analysis.
+     * @see #analyze(EqualsHashCode, Iterable, int)
+     */
+    public static <T> HashReport analyze(final EqualsHashCode<T> definition, final Iterable<? extends T> sample) {
+        return analyze(definition, sample, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Command line entry point, see the class documentation for the arguments.
+     * @param args Type holding the definition, name of the static field holding the definition, file of serialised samples and optionally the table size.
+     * @throws Exception if the definition or samples can't be read.
+     */
+    public static void main(final String[] args) throws Exception {
+        final int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static int run(final String[] args, final PrintStream out, final PrintStream err) throws Exception {
+        if (args.length < 3 || args.length > 4) {
+            err.println("Usage: " + HashAnalyzer.class.getName() + " <type holding definition> <static field name> <serialised samples> [table size]");
+            return 2;
+        }
+
+        final Field field = Class.forName(args[0]).getDeclaredField(args[1]);
+        if (!Modifier.isStatic(field.getModifiers()) || !EqualsHashCode.class.isAssignableFrom(field.getType())) {
+            err.println(args[0] + "." + args[1] + " is not a static " + EqualsHashCode.class.getSimpleName());
+            return 2;
+        }
+        field.setAccessible(true);
+        final EqualsHashCode<Object> definition = (EqualsHashCode<Object>) field.get(null);
+
+        final List<Object> sample = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(args[2])));
+             ObjectInputStream objects = new SampleInputStream(in, definition.getExpectedType())) {
+            while (true) {
+                final Object value;
+                try {
+                    value = objects.readObject();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (value instanceof Collection) {
+                    sample.addAll((Collection<?>) value);
+                } else {
+                    sample.add(value);
+                }
+            }
+        } catch (IOException e) {
+            err.println("Unable to read samples from " + args[2] + ": " + e);
+            return 1;
+        }
+
+        out.print(analyze(definition, sample, args.length == 4 ? Integer.parseInt(args[3]) : DEFAULT_TABLE_SIZE));
+        return 0;
+    }
+
+    private static int combine(final int[] fieldHashes, final int row, final int fields) {
+        // Same as EqualsHashCode#toHashCode
+        int result = 1;
+        for (int f = row * fields; f < (row + 1) * fields; f++) {
+            result = 31 * result + fieldHashes[f];
+        }
+        return result;
+    }
+
+    private static double entropy(final Collection<Integer> frequencies, final int total) {
+        double entropy = 0;
+        for (final int frequency : frequencies) {
+            final double p = (double) frequency / total;
+            entropy -= p * Math.log(p) / Math.log(2);
+        }
+        return entropy;
+    }
+
+    /**
+     * Substitute the field's hash code in each row with that of a following row which has a different value for it, and measure how many bits of the
+     * combined hash code change. Rows without a different value close by are skipped to keep this linear.
+     */
+    private static double avalanche(final int[] fieldHashes, final int fields, final int field) {
+        final int rows = fields == 0 ? 0 : fieldHashes.length / fields;
+        long flipped = 0;
+        long trials = 0;
+        for (int i = 0; i < rows; i++) {
+            final int index = i * fields + field;
+            final int original = fieldHashes[index];
+            for (int j = 1; j < Math.min(rows, AVALANCHE_SEARCH_LIMIT); j++) {
+                final int substitute = fieldHashes[((i + j) % rows) * fields + field];
+                if (substitute != original) {
+                    final int hash = combine(fieldHashes, i, fields);
+                    fieldHashes[index] = substitute;
+                    flipped += Integer.bitCount(hash ^ combine(fieldHashes, i, fields));
+                    fieldHashes[index] = original;
+                    trials++;
+                    break;
+                }
+            }
+        }
+        return trials == 0 ? Double.NaN : (double) flipped / (trials * Integer.SIZE);
+    }
+
+    /**
+     * Only resolves the classes that samples of the expected type are made of, so that the file can't have arbitrary serialisable classes on the
+     * class path instantiated.
+     */
+    private static class SampleInputStream extends ObjectInputStream {
+
+        private final String samplePackage;
+
+        SampleInputStream(final InputStream in, final Class<?> sampleType) throws IOException {
+            super(in);
+            this.samplePackage = packageOf(sampleType);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final Class<?> type = super.resolveClass(desc);
+            Class<?> component = type;
+            while (component.isArray()) {
+                component = component.getComponentType();
+            }
+            if (!component.isPrimitive() && !packageOf(component).equals(samplePackage) && !SAMPLE_PACKAGES.contains(packageOf(component))) {
+                throw new InvalidClassException(desc.getName(), "Not allowed in samples of the " + samplePackage + " package");
+            }
+            return type;
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(final String[] interfaces) throws IOException {
+            throw new InvalidClassException("Proxy classes are not allowed in samples");
+        }
+
+        private static String packageOf(final Class<?> type) {
+            final int dot = type.getName().lastIndexOf('.');
+            return dot < 0 ? "" : type.getName().substring(0, dot);
+        }
+    }
+}
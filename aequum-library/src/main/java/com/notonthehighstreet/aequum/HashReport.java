@@ -0,0 +1,219 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The results of {@linkplain HashAnalyzer#analyze(EqualsHashCode, Iterable, int)}. Every figure is calculated over the distinct values of the sample,
+ * as decided by the definition, so that duplicates aren't counted as collisions.
+ */
+public class HashReport {
+
+    private final int sampleSize;
+    private final int distinctValues;
+    private final int distinctHashCodes;
+    private final int tableSize;
+    private final int usedBuckets;
+    private final int largestBucket;
+    private final List<Field> fields;
+
+    HashReport(final int sampleSize, final int distinctValues, final int distinctHashCodes, final int tableSize, final int usedBuckets,
+               final int largestBucket, final List<Field> fields) {
+        this.sampleSize = sampleSize;
+        this.distinctValues = distinctValues;
+        this.distinctHashCodes = distinctHashCodes;
+        this.tableSize = tableSize;
+        this.usedBuckets = usedBuckets;
+        this.largestBucket = largestBucket;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+    }
+
+    /**
+     * Analysis of a single field used for equality.
+     */
+    public static class Field {
+        private final String name;
+        private final int distinctHashCodes;
+        private final double entropy;
+        private final double avalanche;
+
+        Field(final String name, final int distinctHashCodes, final double entropy, final double avalanche) {
+            this.name = name;
+            this.distinctHashCodes = distinctHashCodes;
+            this.entropy = entropy;
+            this.avalanche = avalanche;
+        }
+
+        /**
+         * @return The name of the field.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The number of different hash codes of the field's values.
+         */
+        public int getDistinctHashCodes() {
+            return distinctHashCodes;
+        }
+
+        /**
+         * @return The Shannon entropy, in bits, of the hash codes of the field's values.
+         */
+        public double getEntropy() {
+            return entropy;
+        }
+
+        /**
+         * The average fraction of the bits of {@linkplain EqualsHashCode#toHashCode(Object) toHashCode} that change when only this field's value
+         * changes. A good hash changes half of them, whereas a value near zero means that changes to the field only reach a few bits. It is measured
+         * over the same linear {@code 31 * result + hash} combination as {@code toHashCode}, which doesn't mix bits itself, so the figure mostly reflects
+         * how many bits the field's own hash codes differ by.
+         * @return The fraction of bits changed, between 0 and 1, or {@linkplain Double#NaN} if the field never differs within the sample.
+         */
+        public double getAvalanche() {
+            return avalanche;
+        }
+    }
+
+    /**
+     * @return The number of objects in the sample.
+     */
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * @return The number of objects in the sample which aren't equal to each other.
+     */
+    public int getDistinctValues() {
+        return distinctValues;
+    }
+
+    /**
+     * @return The number of different hash codes of the distinct values.
+     */
+    public int getDistinctHashCodes() {
+        return distinctHashCodes;
+    }
+
+    /**
+     * @return The fraction of distinct values whose full hash code is the same as that of another value.
+     */
+    public double getHashCodeCollisionRate() {
+        return distinctValues == 0 ? 0 : (double) (distinctValues - distinctHashCodes) / distinctValues;
+    }
+
+    /**
+     * @return The number of buckets in the simulated table, which is rounded up to a power of two.
+     */
+    public int getTableSize() {
+        return tableSize;
+    }
+
+    /**
+     * @return The number of buckets holding at least one value.
+     */
+    public int getUsedBuckets() {
+        return usedBuckets;
+    }
+
+    /**
+     * @return The most values held by a single bucket.
+     */
+    public int getLargestBucket() {
+        return largestBucket;
+    }
+
+    /**
+     * @return The fraction of the table's buckets which hold at least one value.
+     */
+    public double getBucketOccupancy() {
+        return (double) usedBuckets / tableSize;
+    }
+
+    /**
+     * The fraction of distinct values which landed in a bucket that was already in use, as they would in a {@linkplain java.util.HashMap} of the
+     * same size.
+     * @return The collision rate.
+     */
+    public double getCollisionRate() {
+        return distinctValues == 0 ? 0 : (double) (distinctValues - usedBuckets) / distinctValues;
+    }
+
+    /**
+     * The collision rate that a uniformly random hash function would be expected to give for the same number of values and buckets, to compare
+     * {@linkplain #getCollisionRate()} against.
+     * @return The expected collision rate.
+     */
+    public double getExpectedCollisionRate() {
+        if (distinctValues == 0) {
+            return 0;
+        }
+        final double expectedUsed = tableSize * -Math.expm1(distinctValues * Math.log1p(-1.0 / tableSize));
+        return (distinctValues - expectedUsed) / distinctValues;
+    }
+
+    /**
+     * @return Analysis of each field used for equality, in the order they were defined.
+     */
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * Find the fields that contribute almost nothing to the hash code.
+     * @param minimumBits Entropy below which a field is reported.
+     * @return The names of the fields whose entropy is below the minimum.
+     */
+    public List<String> getLowEntropyFields(final double minimumBits) {
+        return fields.stream().filter(f -> f.getEntropy() < minimumBits).map(Field::getName).collect(toList());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Sample size:           %d%n", sampleSize));
+        report.append(String.format(Locale.ROOT, "Distinct values:       %d%n", distinctValues));
+        report.append(String.format(Locale.ROOT, "Distinct hash codes:   %d (%.2f%% collide)%n", distinctHashCodes, 100 * getHashCodeCollisionRate()));
+        report.append(String.format(Locale.ROOT, "Table size:            %d%n", tableSize));
+        report.append(String.format(Locale.ROOT, "Bucket occupancy:      %.2f%% (largest bucket %d)%n", 100 * getBucketOccupancy(), largestBucket));
+        report.append(String.format(Locale.ROOT, "Collision rate:        %.2f%% (random hash %.2f%%)%n", 100 * getCollisionRate(), 100 * getExpectedCollisionRate()));
+        for (final Field field : fields) {
+            report.append(String.format(Locale.ROOT, "Field %-16s %d distinct, %.2f bits entropy, %.3f avalanche%n",
+                    field.getName() + ":", field.getDistinctHashCodes(), field.getEntropy(), field.getAvalanche()));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * A field of a nested definition, read through the parent's field so that it is evaluated as one of the parent's own fields. When the nested value is
+ * {@code null} the field is too, and two {@code null} nested values are equal and sort first. The {@linkplain NestedFieldValue} before it tells a
+ * {@code null} nested value apart from one whose field is {@code null}. The field is only used for equality, hash codes and ordering, as the nested
+ * value's own {@code toString} is given by the {@linkplain NestedFieldValue}.
+ */
+class InlinedFieldValue<T, V> extends ComparableFieldValue<T> {
+    private final Function<T, V> nestedField;
+    private final FieldValue<V> field;
+
+    InlinedFieldValue(final String nestedName, final Function<T, V> nestedField, final FieldValue<V> field) {
+        super(true, readThrough(nestedField, field), nestedName + "." + field.getName(), comparatorFor(field), readThrough(nestedField, field));
+        this.nestedField = nestedField;
+        this.field = field;
+    }
+
+    private static <T, V> Function<T, ?> readThrough(final Function<T, V> nestedField, final FieldValue<V> field) {
+        final Function<V, ?> value = field.getField();
+        return o -> {
+            final V nested = nestedField.apply(o);
+            return nested == null ? null : value.apply(nested);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator comparatorFor(final FieldValue<?> field) {
+        if (field instanceof ComparableFieldValue && ((ComparableFieldValue<?>) field).getComparator() != null) {
+            return Comparator.nullsFirst(((ComparableFieldValue<?>) field).getComparator());
+        }
+        return null;
+    }
+
+    @Override
+    boolean isIncludedInToString() {
+        return false;
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        final V thisValue = nestedField.apply(thisObject);
+        final V thatValue = nestedField.apply(thatObject);
+        if (thisValue == null || thatValue == null) {
+            return thisValue == thatValue;
+        }
+        return field.isEqual(thisValue, thatValue);
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof InlinedFieldValue && field.isJoinableWith(((InlinedFieldValue<?, ?>) thatField).field);
+    }
+
+    @Override
+    <U> boolean isEqual(final T thisObject, final FieldValue<U> thatField, final U thatObject) {
+        return isEqualThrough(thisObject, (InlinedFieldValue<U, ?>) thatField, thatObject);
+    }
+
+    private <U, W> boolean isEqualThrough(final T thisObject, final InlinedFieldValue<U, W> thatField, final U thatObject) {
+        final V thisValue = nestedField.apply(thisObject);
+        final W thatValue = thatField.nestedField.apply(thatObject);
+        if (thisValue == null || thatValue == null) {
+            return thisValue == null && thatValue == null;
+        }
+        return field.isEqual(thisValue, thatField.field, thatValue);
+    }
+
+    @Override
+    boolean valuesEqual(final Object thisValue, final Object thatValue) {
+        return field.valuesEqual(thisValue, thatValue);
+    }
+
+    @Override
+    int valueHash(final Object value) {
+        return field.valueHash(value);
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        final V value = nestedField.apply(thisObject);
+        return value == null ? 0 : field.hash(value);
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        final V value = nestedField.apply(thisObject);
+        return value == null ? LongHashing.hash((Object) null) : field.longHash(value);
+    }
+
+    @Override
+    int compare(final T thisObject, final T thatObject) {
+        final V thisValue = nestedField.apply(thisObject);
+        final V thatValue = nestedField.apply(thatObject);
+        if (thisValue == null || thatValue == null) {
+            return thisValue == null ? (thatValue == null ? 0 : -1) : 1;
+        }
+        return ((ComparableFieldValue<V>) field).compare(thisValue, thatValue);
+    }
+
+    @Override
+    int compareToValue(final T thisObject, final Object value) {
+        final V nested = nestedField.apply(thisObject);
+        if (nested == null) {
+            return value == null ? 0 : -1;
+        }
+        return ((ComparableFieldValue<V>) field).compareToValue(nested, value);
+    }
+}
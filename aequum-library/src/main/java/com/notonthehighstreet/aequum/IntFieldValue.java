@@ -0,0 +1,67 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A field read as a primitive {@code int}, so that equality, hash code and comparison don't box the value. The results are the same as for the
+ * boxed {@linkplain Integer}.
+ */
+class IntFieldValue<T> extends ComparableFieldValue<T> {
+    private final ToIntFunction<T> intField;
+
+    IntFieldValue(final SerializableToIntFunction<T> field, final Function<T, ?> toStringValue) {
+        this(field, getAppropriateFieldName(field), toStringValue);
+    }
+
+    IntFieldValue(final ToIntFunction<T> field, final String name, final Function<T, ?> toStringValue) {
+        super(true, field::applyAsInt, name, Comparator.naturalOrder(), toStringValue);
+        this.intField = field;
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return intField.applyAsInt(thisObject) == intField.applyAsInt(thatObject);
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof IntFieldValue;
+    }
+
+    @Override
+    <U> boolean isEqual(final T thisObject, final FieldValue<U> thatField, final U thatObject) {
+        return intField.applyAsInt(thisObject) == ((IntFieldValue<U>) thatField).intField.applyAsInt(thatObject);
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        return Integer.hashCode(intField.applyAsInt(thisObject));
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        return LongHashing.mix(intField.applyAsInt(thisObject));
+    }
+
+    @Override
+    int compare(final T thisObject, final T thatObject) {
+        return Integer.compare(intField.applyAsInt(thisObject), intField.applyAsInt(thatObject));
+    }
+
+    @Override
+    int compareToValue(final T thisObject, final Object value) {
+        return Integer.compare(intField.applyAsInt(thisObject), (Integer) value);
+    }
+
+    @Override
+    BatchColumn toColumn(final List<? extends T> rows, final boolean ranked) {
+        final int[] values = new int[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = intField.applyAsInt(rows.get(i));
+        }
+        return new BatchColumn.IntColumn(values);
+    }
+}
@@ -0,0 +1,34 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Heap storage, setting bits with a compare and swap loop.
+ */
+class LongArrayStorage implements BloomStorage {
+
+    private final AtomicLongArray words;
+
+    LongArrayStorage(final int words) {
+        this.words = new AtomicLongArray(words);
+    }
+
+    @Override
+    public int words() {
+        return words.length();
+    }
+
+    @Override
+    public long word(final int index) {
+        return words.get(index);
+    }
+
+    @Override
+    public long or(final int index, final long mask) {
+        long current = words.get(index);
+        while ((current & mask) != mask && !words.compareAndSet(index, current, current | mask)) {
+            current = words.get(index);
+        }
+        return current;
+    }
+}
@@ -0,0 +1,67 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A field read as a primitive {@code long}, so that equality, hash code and comparison don't box the value. The results are the same as for the
+ * boxed {@linkplain Long}.
+ */
+class LongFieldValue<T> extends ComparableFieldValue<T> {
+    private final ToLongFunction<T> longField;
+
+    LongFieldValue(final SerializableToLongFunction<T> field, final Function<T, ?> toStringValue) {
+        this(field, getAppropriateFieldName(field), toStringValue);
+    }
+
+    LongFieldValue(final ToLongFunction<T> field, final String name, final Function<T, ?> toStringValue) {
+        super(true, field::applyAsLong, name, Comparator.naturalOrder(), toStringValue);
+        this.longField = field;
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return longField.applyAsLong(thisObject) == longField.applyAsLong(thatObject);
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof LongFieldValue;
+    }
+
+    @Override
+    <U> boolean isEqual(final T thisObject, final FieldValue<U> thatField, final U thatObject) {
+        return longField.applyAsLong(thisObject) == ((LongFieldValue<U>) thatField).longField.applyAsLong(thatObject);
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        return Long.hashCode(longField.applyAsLong(thisObject));
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        return LongHashing.mix(longField.applyAsLong(thisObject));
+    }
+
+    @Override
+    int compare(final T thisObject, final T thatObject) {
+        return Long.compare(longField.applyAsLong(thisObject), longField.applyAsLong(thatObject));
+    }
+
+    @Override
+    int compareToValue(final T thisObject, final Object value) {
+        return Long.compare(longField.applyAsLong(thisObject), (Long) value);
+    }
+
+    @Override
+    BatchColumn toColumn(final List<? extends T> rows, final boolean ranked) {
+        final long[] values = new long[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = longField.applyAsLong(rows.get(i));
+        }
+        return new BatchColumn.LongColumn(values);
+    }
+}
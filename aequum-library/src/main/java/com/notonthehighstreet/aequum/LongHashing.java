@@ -0,0 +1,88 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Optional;
+
+/**
+ * 64 bit hashing of field values which is consistent with the equality used by {@linkplain FieldValue}. Primitive values, strings and arrays are
+ * mixed from their full contents rather than from their 32 bit {@linkplain Object#hashCode() hashCode}.
+ */
+final class LongHashing {
+
+    private static final long NULL_HASH = 0x5BD1E9955BD1E995L;
+    private static final long EMPTY_OPTIONAL_HASH = 0x27D4EB2F165667C5L;
+
+    private LongHashing() {
+    }
+
+    static long hash(final Object value) {
+        if (value == null) {
+            return NULL_HASH;
+        } else if (value instanceof String) {
+            return hash((String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            return mix(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Float) {
+            return mix(Float.floatToIntBits((Float) value));
+        } else if (value instanceof Character) {
+            return mix((Character) value);
+        } else if (value instanceof Boolean) {
+            return mix((Boolean) value ? 1231 : 1237);
+        } else if (value instanceof Optional) {
+            return hashOptional(((Optional<?>) value).orElse(null));
+        } else if (value instanceof Object[]) {
+            long result = 1;
+            for (final Object element : (Object[]) value) {
+                result = mix(result + hash(element));
+            }
+            return result;
+        } else if (value instanceof long[]) {
+            long result = 1;
+            for (final long element : (long[]) value) {
+                result = mix(result + element);
+            }
+            return result;
+        } else if (value instanceof int[]) {
+            long result = 1;
+            for (final int element : (int[]) value) {
+                result = mix(result + element);
+            }
+            return result;
+        } else if (value instanceof double[]) {
+            long result = 1;
+            for (final double element : (double[]) value) {
+                result = mix(result + Double.doubleToLongBits(element));
+            }
+            return result;
+        }
+        // Anything else only has its own 32 bit hash code to go on
+        return mix(FieldValue.deepHashCode(value));
+    }
+
+    /**
+     * Hash of an {@linkplain Optional} holding the value, or of an empty one if the value is {@code null}.
+     */
+    static long hashOptional(final Object value) {
+        return value == null ? EMPTY_OPTIONAL_HASH : mix(hash(value) + 1);
+    }
+
+    static long hash(final String value) {
+        // FNV-1a over the characters
+        long result = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            result = (result ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(result);
+    }
+
+    /**
+     * The finalisation step of MurmurHash3, after spreading the value with the golden ratio so that zero doesn't map to zero.
+     */
+    static long mix(final long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,72 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A field whose value is itself defined by an {@linkplain EqualsHashCode}. The nested definition's fields are inlined into the parent as
+ * {@linkplain InlinedFieldValue}s which follow this one, so they are evaluated as the parent's own fields. This field only decides whether the values
+ * are both {@code null}, or both not, and of the same class if the nested definition has exact type equality, with {@code null} sorting first. It also
+ * gives the value's own {@code toString}.
+ */
+class NestedFieldValue<T, V> extends ComparableFieldValue<T> {
+    private final SerializableFunction<T, V> nestedField;
+    private final boolean exactType;
+
+    private NestedFieldValue(final SerializableFunction<T, V> field, final boolean exactType) {
+        super(true, field, Comparator.nullsFirst((a, b) -> 0), field);
+        this.nestedField = field;
+        this.exactType = exactType;
+    }
+
+    /**
+     * The fields to add to the parent for a nested field: the nested field itself, followed by each of the nested definition's fields read through it.
+     */
+    static <T, V> List<ComparableFieldValue<T>> flatten(final SerializableFunction<T, V> field, final EqualsHashCode<V> definition) {
+        final NestedFieldValue<T, V> nested = new NestedFieldValue<>(field, definition.isExactType());
+        final List<ComparableFieldValue<T>> fields = new ArrayList<>();
+        fields.add(nested);
+        for (final FieldValue<V> nestedDefinitionField : definition.getFields()) {
+            fields.add(new InlinedFieldValue<>(nested.getName(), field, nestedDefinitionField));
+        }
+        return fields;
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return valuesEqual(nestedField.apply(thisObject), nestedField.apply(thatObject));
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof NestedFieldValue && ((NestedFieldValue<?, ?>) thatField).exactType == exactType;
+    }
+
+    @Override
+    boolean valuesEqual(final Object thisValue, final Object thatValue) {
+        if (thisValue == null || thatValue == null) {
+            return thisValue == thatValue;
+        }
+        return !exactType || thisValue.getClass() == thatValue.getClass();
+    }
+
+    @Override
+    int valueHash(final Object value) {
+        if (value == null) {
+            return 0;
+        }
+        // The class name rather than the class, so that the hash code is the same from one run to the next
+        return exactType ? value.getClass().getName().hashCode() : 1;
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        return valueHash(nestedField.apply(thisObject));
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        return LongHashing.mix(valueHash(nestedField.apply(thisObject)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Field read through a raw accessor which may return {@code null}, treated exactly as if the accessor returned {@linkplain Optional#ofNullable(Object)}
+ * of the value but without creating the {@linkplain Optional}, except for {@code toString}.
+ */
+class NullableFieldValue<T, V> extends ComparableFieldValue<T> {
+    private final SerializableFunction<T, V> nullableField;
+
+    NullableFieldValue(final SerializableFunction<T, V> field, final Comparator<V> comparator) {
+        // Sorting nulls first matches OptionalComparator sorting empty first
+        super(true, field, getAppropriateFieldName(field), Comparator.nullsFirst(comparator), o -> Optional.ofNullable(field.apply(o)));
+        this.nullableField = field;
+    }
+
+    @Override
+    boolean isEqual(final T thisObject, final T thatObject) {
+        return Objects.equals(nullableField.apply(thisObject), nullableField.apply(thatObject));
+    }
+
+    @Override
+    boolean isJoinableWith(final FieldValue<?> thatField) {
+        return thatField instanceof NullableFieldValue;
+    }
+
+    @Override
+    boolean valuesEqual(final Object thisValue, final Object thatValue) {
+        return Objects.equals(thisValue, thatValue);
+    }
+
+    @Override
+    int valueHash(final Object value) {
+        return Objects.hashCode(value);
+    }
+
+    @Override
+    int hash(final T thisObject) {
+        // Same as Optional.hashCode
+        return Objects.hashCode(nullableField.apply(thisObject));
+    }
+
+    @Override
+    long longHash(final T thisObject) {
+        return LongHashing.hashOptional(nullableField.apply(thisObject));
+    }
+}
@@ -0,0 +1,143 @@
+package com.notonthehighstreet.aequum;
+
+/**
+ * Linear probing hash table of keys with the hash code of each key cached alongside it, and optionally an {@code int} value per key. A {@code null}
+ * key marks an empty slot. The table only manages the slots; subclasses walk the probe chain from {@linkplain #slot(int)} with
+ * {@linkplain #next(int)} and decide when two keys are equal, so that no comparator object is needed per lookup.
+ */
+abstract class OpenAddressingTable {
+
+    private static final int MINIMUM_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private int[] hashes;
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    OpenAddressingTable(final int expectedSize, final boolean withValues) {
+        final int capacity = capacityFor(expectedSize);
+        this.hashes = new int[capacity];
+        this.keys = new Object[capacity];
+        this.values = withValues ? new int[capacity] : null;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Spread the bits of a hash code, so that hash codes differing only in their upper bits don't all start probing from the same slot.
+     */
+    static int mix(final int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The power of two capacity which keeps the table at most half full with the expected number of keys.
+     */
+    static int capacityFor(final int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < expectedSize * 2 && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * The first slot to probe for the hash code.
+     */
+    final int slot(final int hash) {
+        return mix(hash) & mask;
+    }
+
+    final int next(final int slot) {
+        return (slot + 1) & mask;
+    }
+
+    final boolean isEmpty(final int slot) {
+        return keys[slot] == null;
+    }
+
+    final int hashAt(final int slot) {
+        return hashes[slot];
+    }
+
+    final Object keyAt(final int slot) {
+        return keys[slot];
+    }
+
+    final int valueAt(final int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Fill the empty slot at the end of a probe chain, growing the table once it is more than half full. A table at the maximum capacity can't
+     * grow, so it fills beyond half full instead, up to the last empty slot which keeps every probe chain finite.
+     * @throws IllegalStateException if the table is at the maximum capacity and only one slot is left empty.
+     */
+    final void insert(final int slot, final int hash, final Object key, final int value) {
+        if (size == MAXIMUM_CAPACITY - 1) {
+            throw new IllegalStateException("Too many keys for a hash table: " + size);
+        }
+        hashes[slot] = hash;
+        keys[slot] = key;
+        if (values != null) {
+            values[slot] = value;
+        }
+        if (++size > (mask + 1) / 2 && mask + 1 < MAXIMUM_CAPACITY) {
+            resize();
+        }
+    }
+
+    final void delete(final int slot) {
+        // Backward shift deletion, so linear probe chains never contain a hole
+        int hole = slot;
+        int index = slot;
+        while (true) {
+            index = (index + 1) & mask;
+            if (keys[index] == null) {
+                break;
+            }
+            final int home = mix(hashes[index]) & mask;
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                hashes[hole] = hashes[index];
+                keys[hole] = keys[index];
+                if (values != null) {
+                    values[hole] = values[index];
+                }
+                hole = index;
+            }
+        }
+        keys[hole] = null;
+        size--;
+    }
+
+    final int size() {
+        return size;
+    }
+
+    private void resize() {
+        final int[] oldHashes = hashes;
+        final Object[] oldKeys = keys;
+        final int[] oldValues = values;
+
+        hashes = new int[oldHashes.length * 2];
+        keys = new Object[oldKeys.length * 2];
+        values = oldValues == null ? null : new int[oldValues.length * 2];
+        mask = hashes.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = mix(oldHashes[i]) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                hashes[index] = oldHashes[i];
+                keys[index] = oldKeys[i];
+                if (values != null) {
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.notonthehighstreet.aequum;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Access to facilities which depend on the version of Java being run. This is the Java 8 implementation; newer implementations live in
+ * {@code src/main/java17} and are picked up from {@code META-INF/versions} of the multi-release JAR.
+ */
+final class Platform {
+
+    private Platform() {
+    }
+
+    /**
+     * Create a field per record component, in declaration order.
+     * @param comparable Whether the fields need a natural ordering comparator.
+     */
+    static <T> List<ComparableFieldValue<T>> recordFields(final Class<T> recordType, final boolean comparable) {
+        throw new UnsupportedOperationException("Records are only supported when running on Java 17 or later");
+    }
+
+    /**
+     * Atomically set the bits of the mask in the {@code long} at the given byte index of the buffer. Java 8 has no way of doing this without locking,
+     * so writers synchronise on the buffer.
+     * @return The value before the bits were set.
+     */
+    static long getAndBitwiseOr(final ByteBuffer buffer, final int index, final long mask) {
+        synchronized (buffer) {
+            final long current = buffer.getLong(index);
+            buffer.putLong(index, current | mask);
+            return current;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>
+ *     View of a subset of the fields of an {@linkplain EqualsHashCode}, obtained through {@linkplain EqualsHashCode#project(int...)}, which allows
+ *     rows to be grouped or joined on those fields without allocating a key object for each row.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  Projection&lt;Sale&gt; byRegionAndDay = SALE_EQUALS_HASH_CODE.project(0, 2);
+ *  List&lt;List&lt;Sale&gt;&gt; groups = byRegionAndDay.groupBy(sales);
+ * </pre>
+ * @param <T> Type that the equality and hash codes should be calculated on.
+ */
+public class Projection<T> {
+
+    private final FieldValue<T>[] fields;
+
+    Projection(final FieldValue<T>[] fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Check whether the projected fields of the given objects are equal.
+     * @param thisObject <code>this</code> object.
+     * @param thatObject Object to compare it to.
+     * @return True if they are equal, false otherwise.
+     */
+    public boolean isEqual(final T thisObject, final T thatObject) {
+        if (thisObject == thatObject) {
+            return true;
+        }
+
+        for (final FieldValue<T> field : fields) {
+            if (!field.isEqual(thisObject, thatObject)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculate the hash code of the projected fields, which is the same as the hash code of a definition built with only those fields.
+     * @param thisObject <code>this</code> object.
+     * @return The hash code value.
+     */
+    public int toHashCode(final T thisObject) {
+        int result = 1;
+        for (final FieldValue<T> field : fields) {
+            result = 31 * result + field.hash(thisObject);
+        }
+        return result;
+    }
+
+    /**
+     * Group the rows by the projected fields.
+     * @param rows Rows to group.
+     * @return The groups, in the order each was first seen, with the rows of each group in their original order.
+     */
+    public List<List<T>> groupBy(final Iterable<? extends T> rows) {
+        final ProjectionTable<T> table = new ProjectionTable<>(this);
+        final List<List<T>> groups = new ArrayList<>();
+        for (final T row : rows) {
+            final int group = table.getOrAdd(row);
+            if (group == groups.size()) {
+                groups.add(new ArrayList<>());
+            }
+            groups.get(group).add(row);
+        }
+        return groups;
+    }
+
+    /**
+     * Join two sets of rows where the projected fields of each are equal. A hash table is built over the {@code build} rows, which should be the
+     * smaller of the two, and then looked up for each of the {@code probe} rows. Fields are matched by position and compared the same way as
+     * {@linkplain #isEqual(Object, Object)} compares them, so each pair of fields must be of the same kind: both {@code int}, {@code long} or
+     * {@code double} fields, both nullable fields, both nested fields of the same definition, or both plain fields.
+     * @param build Rows to build the hash table from.
+     * @param probeProjection Projection of the probe rows, which must have the same number of fields as this projection.
+     * @param probe Rows to look up in the hash table.
+     * @param matches Called with each matching pair of rows, in the order of the probe rows.
+     * @param <U> Type of the probe rows.
+     * @throws IllegalArgumentException if the projections have a different number of fields, or a pair of fields of different kinds.
+     */
+    public <U> void hashJoin(final Iterable<? extends T> build, final Projection<U> probeProjection, final Iterable<? extends U> probe,
+                             final BiConsumer<? super T, ? super U> matches) {
+        if (probeProjection.size() != size()) {
+            throw new IllegalArgumentException("Projections have a different number of fields: " + size() + " and " + probeProjection.size());
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].isJoinableWith(probeProjection.fields[i])) {
+                throw new IllegalArgumentException(
+                        "Fields " + fields[i].getName() + " and " + probeProjection.fields[i].getName() + " are of different kinds");
+            }
+        }
+
+        final ProjectionTable<T> table = new ProjectionTable<>(this);
+        final List<List<T>> groups = new ArrayList<>();
+        for (final T row : build) {
+            final int group = table.getOrAdd(row);
+            if (group == groups.size()) {
+                groups.add(new ArrayList<>(1));
+            }
+            groups.get(group).add(row);
+        }
+
+        for (final U row : probe) {
+            final int group = table.get(probeProjection, row);
+            if (group >= 0) {
+                for (final T match : groups.get(group)) {
+                    matches.accept(match, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of projected fields.
+     * @return The number of fields.
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Check whether the projected fields of the object are equal to those of an object of another type, field by field.
+     */
+    <U> boolean isEqual(final T thisObject, final Projection<U> thatProjection, final U thatObject) {
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].isEqual(thisObject, thatProjection.fields[i], thatObject)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
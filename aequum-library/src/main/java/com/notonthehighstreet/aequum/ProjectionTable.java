@@ -0,0 +1,56 @@
+package com.notonthehighstreet.aequum;
+
+/**
+ * Open addressing hash table from the projected fields of a row to a dense group id, with the hash code of each key cached alongside it.
+ */
+class ProjectionTable<T> extends OpenAddressingTable {
+
+    private final Projection<T> projection;
+
+    ProjectionTable(final Projection<T> projection) {
+        super(0, true);
+        this.projection = projection;
+    }
+
+    /**
+     * Find the group of the row, adding a new group if there isn't one.
+     * @return The group id, which is {@linkplain #size()} before the call if a new group was added.
+     */
+    int getOrAdd(final T row) {
+        final int hash = projection.toHashCode(row);
+
+        int index = slot(hash);
+        while (!isEmpty(index)) {
+            if (hashAt(index) == hash && projection.isEqual(key(index), row)) {
+                return valueAt(index);
+            }
+            index = next(index);
+        }
+
+        final int id = size();
+        insert(index, hash, row, id);
+        return id;
+    }
+
+    /**
+     * Find the group of a row of another type, comparing the projected fields of each.
+     * @return The group id, or -1 if there isn't a matching group.
+     */
+    <U> int get(final Projection<U> otherProjection, final U row) {
+        final int hash = otherProjection.toHashCode(row);
+
+        int index = slot(hash);
+        while (!isEmpty(index)) {
+            if (hashAt(index) == hash && projection.isEqual(key(index), otherProjection, row)) {
+                return valueAt(index);
+            }
+            index = next(index);
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T key(final int index) {
+        return (T) keyAt(index);
+    }
+}
@@ -0,0 +1,57 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts objects to and from bytes so that they can be spilled to disk by {@linkplain ExternalSort}.
+ * @param <T> Type of the objects being encoded.
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * The exact number of bytes that {@linkplain #encode(Object, ByteBuffer)} will write for the object.
+     * @param value Object to be encoded.
+     * @return Number of bytes.
+     */
+    int encodedSize(T value);
+
+    /**
+     * Write the object to the buffer, starting at its current position.
+     * @param value Object to be encoded.
+     * @param buffer Buffer with at least {@linkplain #encodedSize(Object)} bytes remaining.
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Read an object from the buffer, whose remaining bytes are exactly those written by {@linkplain #encode(Object, ByteBuffer)}.
+     * @param buffer Buffer containing the encoded object.
+     * @return The decoded object.
+     */
+    T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,117 @@
+package com.notonthehighstreet.aequum;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a run written by {@linkplain RunWriter} through a buffer holding a window of the file, so that only a bounded part of the file is in memory
+ * however big it is. The window is refilled from the channel whenever the next record doesn't fit in what is left of it. The file is read rather than
+ * memory-mapped so that nothing keeps it open once the reader is closed, and it can be deleted straight away on every platform.
+ */
+class RunReader<T> implements AutoCloseable {
+
+    private final RecordCodec<T> codec;
+    private final Path file;
+    private final FileChannel channel;
+    private final int order;
+
+    private ByteBuffer window;
+    private boolean exhausted;
+    private T head;
+
+    RunReader(final RecordCodec<T> codec, final Path file, final int windowSize, final int order) throws IOException {
+        this.codec = codec;
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.order = order;
+        this.window = ByteBuffer.allocate(windowSize);
+        window.flip();
+
+        advance();
+    }
+
+    /**
+     * Whether every record of the run has been read, after which {@linkplain #head()} is no longer valid.
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * The record at the front of the run, which may be null if the codec decoded it as null.
+     */
+    T head() {
+        return head;
+    }
+
+    /**
+     * Position of the run within the runs being merged, used to keep the sort stable.
+     */
+    int order() {
+        return order;
+    }
+
+    void advance() throws IOException {
+        if (!fill(Integer.BYTES)) {
+            exhausted = true;
+            head = null;
+            return;
+        }
+        final int size = window.getInt(window.position());
+        if (size < 0 || size > Integer.MAX_VALUE - Integer.BYTES) {
+            throw new IOException("Run " + file + " has a record with an invalid length: " + size);
+        }
+        // Check the length against what is left of the file before growing the window, so that a corrupt length can't allocate a huge buffer
+        if (size > channel.size() - channel.position() + window.remaining() - Integer.BYTES || !fill(Integer.BYTES + size)) {
+            throw new EOFException("Run " + file + " ends part way through a record of " + size + " bytes");
+        }
+
+        window.position(window.position() + Integer.BYTES);
+        final int end = window.position() + size;
+        final int limit = window.limit();
+        window.limit(end);
+        head = codec.decode(window);
+        window.limit(limit);
+        window.position(end);
+    }
+
+    /**
+     * Make sure that the window holds at least the required number of bytes, reading more of the file if it doesn't.
+     * @return true if the bytes are available, false if the whole file has already been read.
+     * @throws EOFException if the file ends part way through the required bytes.
+     */
+    private boolean fill(final int required) throws IOException {
+        if (window.remaining() >= required) {
+            return true;
+        }
+
+        if (window.capacity() < required) {
+            window = ByteBuffer.allocate(required).put(window);
+        } else {
+            window.compact();
+        }
+        while (window.hasRemaining()) {
+            if (channel.read(window) < 0) {
+                break;
+            }
+        }
+        window.flip();
+
+        if (window.remaining() >= required) {
+            return true;
+        }
+        if (window.hasRemaining()) {
+            throw new EOFException("Run " + file + " ends part way through a record");
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
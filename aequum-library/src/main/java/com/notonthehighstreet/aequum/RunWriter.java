@@ -0,0 +1,59 @@
+package com.notonthehighstreet.aequum;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a sorted run to a file, each record being prefixed by its encoded length. Records are gathered into a buffer and written through the
+ * channel once it fills up.
+ */
+class RunWriter<T> implements AutoCloseable {
+
+    private final RecordCodec<T> codec;
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+
+    RunWriter(final RecordCodec<T> codec, final Path file, final int bufferSize) throws IOException {
+        this.codec = codec;
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    void write(final T value) throws IOException {
+        final int size = codec.encodedSize(value);
+        final int required = Integer.BYTES + size;
+        if (buffer.remaining() < required) {
+            flush();
+            if (buffer.capacity() < required) {
+                buffer = ByteBuffer.allocate(required);
+            }
+        }
+
+        buffer.putInt(size);
+        final int end = buffer.position() + size;
+        codec.encode(value, buffer);
+        if (buffer.position() != end) {
+            throw new IllegalStateException("Codec wrote " + (buffer.position() - end + size) + " bytes but said it would write " + size);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
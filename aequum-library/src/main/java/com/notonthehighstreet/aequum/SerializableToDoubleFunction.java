@@ -0,0 +1,10 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A function returning a primitive {@code double} which allows introspection of the passed in lambda.
+ * @param <T> the type of the input to the function
+ */
+public interface SerializableToDoubleFunction<T> extends MethodFinder, ToDoubleFunction<T> {
+}
@@ -0,0 +1,10 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * A function returning a primitive {@code int} which allows introspection of the passed in lambda.
+ * @param <T> the type of the input to the function
+ */
+public interface SerializableToIntFunction<T> extends MethodFinder, ToIntFunction<T> {
+}
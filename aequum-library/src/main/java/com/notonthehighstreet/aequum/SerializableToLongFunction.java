@@ -0,0 +1,10 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A function returning a primitive {@code long} which allows introspection of the passed in lambda.
+ * @param <T> the type of the input to the function
+ */
+public interface SerializableToLongFunction<T> extends MethodFinder, ToLongFunction<T> {
+}
@@ -0,0 +1,233 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>
+ *     Read only index of objects sorted by the fields of a {@linkplain ComparableEqualsHashCode}, which form a composite key. As well as looking up a
+ *     single key, it can find every object whose leading fields equal some values, optionally with the next field within a range, without creating
+ *     sentinel keys.
+ * </p>
+ * <p>
+ *     The objects are held in one sorted array, with the first object of each block of 64 copied into a separate, much smaller array. A lookup binary
+ *     searches the block array first and then a single block, so the first steps of each search stay within a compact region of memory.
+ * </p>
+ * <p>
+ *     Example
+ * </p>
+ * <pre>
+ *  final SortedIndex&lt;Sale&gt; index = SortedIndex.build(SALE_EQUALS_HASH_CODE, sales);
+ *
+ *  // Every sale in the north region on day 7
+ *  index.prefix("north", 7);
+ *
+ *  // Every sale in the north region from day 7 to day 14 inclusive
+ *  index.range(Collections.singletonList("north"), 7, true, 14, true);
+ * </pre>
+ * <p>
+ *     Values passed to queries must be of the type of the field they are compared with, and are compared with the same comparator as the field.
+ * </p>
+ * @param <T> Type of the objects being indexed.
+ */
+public class SortedIndex<T> {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private final ComparableEqualsHashCode<T> definition;
+    private final ComparableFieldValue<T>[] fields;
+    private final Object[] rows;
+    private final Object[] blockFirstRows;
+    private final List<T> view;
+
+    @SuppressWarnings("unchecked")
+    private SortedIndex(final ComparableEqualsHashCode<T> definition, final Object[] rows) {
+        this.definition = definition;
+        this.fields = definition.getComparableFields();
+        this.rows = rows;
+        this.blockFirstRows = new Object[(rows.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int i = 0; i < blockFirstRows.length; i++) {
+            blockFirstRows[i] = rows[i * BLOCK_SIZE];
+        }
+        this.view = Collections.unmodifiableList((List<T>) Arrays.asList(rows));
+    }
+
+    /**
+     * Bulk load an index. Objects which compare as equal are kept in the order they were given.
+     * @param definition Definition of the ordering of the objects.
+     * @param rows Objects to index.
+     * @param <T> Type of the objects being indexed.
+     * @return The index.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SortedIndex<T> build(final ComparableEqualsHashCode<T> definition, final Collection<? extends T> rows) {
+        final Object[] sorted = rows.toArray();
+        Arrays.sort(sorted, (a, b) -> definition.compare((T) a, (T) b));
+        return new SortedIndex<>(definition, sorted);
+    }
+
+    /**
+     * Find an object which compares as equal to the key.
+     * @param key Key to look for.
+     * @return The first matching object in the index, or empty if there isn't one.
+     */
+    public Optional<T> get(final T key) {
+        final int index = firstIndex(row -> definition.compare(row, key), false);
+        return index < rows.length && definition.compare(row(index), key) == 0 ? Optional.of(row(index)) : Optional.empty();
+    }
+
+    /**
+     * Find every object which compares as equal to the key.
+     * @param key Key to look for.
+     * @return The matching objects, in index order.
+     */
+    public List<T> getAll(final T key) {
+        return view.subList(firstIndex(row -> definition.compare(row, key), false), firstIndex(row -> definition.compare(row, key), true));
+    }
+
+    /**
+     * Find every object whose leading fields equal the given values.
+     * @param values Values of the first fields, in the order the fields were defined.
+     * @return The matching objects, in index order.
+     * @throws IllegalArgumentException if there are more values than fields.
+     */
+    public List<T> prefix(final Object... values) {
+        if (values.length > fields.length) {
+            throw new IllegalArgumentException("Too many values for " + fields.length + " fields: " + values.length);
+        }
+
+        return view.subList(firstIndex(row -> comparePrefix(row, values), false), firstIndex(row -> comparePrefix(row, values), true));
+    }
+
+    /**
+     * Find every object whose leading fields equal the given values and whose next field lies within a range.
+     * @param prefix Values of the first fields, in the order the fields were defined, which may be empty.
+     * @param from Lower bound of the field after the prefix.
+     * @param fromInclusive Whether objects equal to the lower bound are included.
+     * @param to Upper bound of the field after the prefix.
+     * @param toInclusive Whether objects equal to the upper bound are included.
+     * @return The matching objects, in index order.
+     * @throws IllegalArgumentException if there is no field after the prefix.
+     */
+    public List<T> range(final List<?> prefix, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        if (prefix.size() >= fields.length) {
+            throw new IllegalArgumentException("No field to range over after a prefix of " + prefix.size() + " for " + fields.length + " fields");
+        }
+
+        final Object[] lower = withBound(prefix, from);
+        final Object[] upper = withBound(prefix, to);
+        final int start = firstIndex(row -> comparePrefix(row, lower), !fromInclusive);
+        final int end = firstIndex(row -> comparePrefix(row, upper), toInclusive);
+        return end <= start ? Collections.emptyList() : view.subList(start, end);
+    }
+
+    /**
+     * @return The number of objects in the index.
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * @return Every object in the index, in order.
+     */
+    public List<T> asList() {
+        return view;
+    }
+
+    private static Object[] withBound(final List<?> prefix, final Object bound) {
+        final Object[] values = prefix.toArray(new Object[prefix.size() + 1]);
+        values[prefix.size()] = bound;
+        return values;
+    }
+
+    private int comparePrefix(final T row, final Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            final int result = fields[i].compareToValue(row, values[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Find the first row which compares as greater than the target, or as greater than or equal to it if {@code after} is false. Rows are sorted, so
+     * the rows before it all compare as less than the target.
+     */
+    private int firstIndex(final RowComparison<T> comparison, final boolean after) {
+        // The last block whose first row is before the target holds the answer, unless it is the first row of the next block
+        int low = 0;
+        int high = blockFirstRows.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (isAtOrAfter(comparison.compare(block(middle)), after)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+
+        int start = (low - 1) * BLOCK_SIZE + 1;
+        int end = Math.min(low * BLOCK_SIZE, rows.length);
+        while (start < end) {
+            final int middle = (start + end) >>> 1;
+            if (isAtOrAfter(comparison.compare(row(middle)), after)) {
+                end = middle;
+            } else {
+                start = middle + 1;
+            }
+        }
+        return start;
+    }
+
+    private static boolean isAtOrAfter(final int comparison, final boolean after) {
+        return after ? comparison > 0 : comparison >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T row(final int index) {
+        return (T) rows[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T block(final int index) {
+        return (T) blockFirstRows[index];
+    }
+
+    private interface RowComparison<T> {
+        int compare(T row);
+    }
+}
@@ -0,0 +1,132 @@
+package com.notonthehighstreet.aequum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded max-heap holding the first {@code k} objects offered to it in the order of a {@linkplain ComparableEqualsHashCode}. The root is the
+ * greatest object kept, which a new object has to beat to get in. Ties are broken by the order the objects were offered in, so the result is the same
+ * as a stable sort followed by a limit.
+ */
+class TopKHeap<T> {
+
+    private final ComparableEqualsHashCode<T> definition;
+    private final ComparableFieldValue<T> leadingField;
+    private final Object[] elements;
+    private final long[] sequences;
+    private int size;
+    private long nextSequence;
+
+    TopKHeap(final ComparableEqualsHashCode<T> definition, final int k) {
+        final ComparableFieldValue<T>[] fields = definition.getComparableFields();
+        this.definition = definition;
+        this.leadingField = fields.length == 0 ? null : fields[0];
+        this.elements = new Object[k];
+        this.sequences = new long[k];
+    }
+
+    void offer(final T element) {
+        final long sequence = nextSequence++;
+        if (size < elements.length) {
+            elements[size] = element;
+            sequences[size] = sequence;
+            siftUp(size++);
+            return;
+        }
+        if (size == 0) {
+            return;
+        }
+
+        // Most candidates are rejected by the leading field alone, without running the rest of the comparison
+        final T root = element(0);
+        if (leadingField != null) {
+            final int leading = leadingField.compare(element, root);
+            if (leading > 0) {
+                return;
+            }
+            if (leading == 0 && definition.compareFrom(1, element, root) >= 0) {
+                return;
+            }
+        } else {
+            // Everything is equal, so the earlier objects always win
+            return;
+        }
+
+        elements[0] = element;
+        sequences[0] = sequence;
+        siftDown(0);
+    }
+
+    /**
+     * Add the objects of a heap that were offered after all of this heap's objects.
+     */
+    TopKHeap<T> merge(final TopKHeap<T> later) {
+        for (final T element : later.toList()) {
+            offer(element);
+        }
+        return this;
+    }
+
+    List<T> toList() {
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(a, b));
+
+        final List<T> result = new ArrayList<>(size);
+        for (final int index : order) {
+            result.add(element(index));
+        }
+        return result;
+    }
+
+    private void siftUp(final int start) {
+        int index = start;
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (compare(index, parent) <= 0) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(final int start) {
+        int index = start;
+        while (true) {
+            final int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int largest = right < size && compare(right, left) > 0 ? right : left;
+            if (compare(largest, index) <= 0) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private int compare(final int first, final int second) {
+        final int result = definition.compare(element(first), element(second));
+        return result != 0 ? result : Long.compare(sequences[first], sequences[second]);
+    }
+
+    private void swap(final int first, final int second) {
+        final Object element = elements[first];
+        elements[first] = elements[second];
+        elements[second] = element;
+        final long sequence = sequences[first];
+        sequences[first] = sequences[second];
+        sequences[second] = sequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(final int index) {
+        return (T) elements[index];
+    }
+}
@@ -0,0 +1,29 @@
+package com.notonthehighstreet.aequum;
+
+class WindowedDistinct<T> extends Distinct<T> {
+
+    private final ElementTable<T> seen;
+    private final Object[] window;
+    private int next;
+
+    WindowedDistinct(final EqualsHashCode<T> definition, final int window) {
+        this.seen = new ElementTable<>(definition, window);
+        this.window = new Object[window];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean add(final T object) {
+        if (!seen.add(object)) {
+            return false;
+        }
+
+        final T evicted = (T) window[next];
+        if (evicted != null) {
+            seen.removeInstance(evicted);
+        }
+        window[next] = object;
+        next = (next + 1) % window.length;
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package com.notonthehighstreet.aequum;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Java 17 implementation of {@linkplain Platform}, packaged in {@code META-INF/versions/17} of the multi-release JAR.
+ */
+final class Platform {
+
+    private static final VarHandle BUFFER_LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private Platform() {
+    }
+
+    /**
+     * Create a field per record component, in declaration order. The component names come straight from the record, so no
+     * {@linkplain java.lang.invoke.SerializedLambda} or bytecode parsing is needed, and each accessor is bound through the
+     * {@linkplain LambdaMetafactory} which defines it as a hidden class that the JIT can inline like a hand written lambda.
+     * <p>
+     * {@code int}, {@code short}, {@code byte} and {@code char} components are read as an {@code int}, {@code float} components as a {@code double},
+     * and {@code long} and {@code double} components as themselves, so they are never boxed except for {@code toString}. Widening gives the same
+     * equality, hash code and ordering as the boxed type. {@code boolean} components are boxed through the cached {@linkplain Boolean} values, which
+     * doesn't allocate.
+     * @param comparable Whether the fields need a natural ordering comparator.
+     */
+    static <T> List<ComparableFieldValue<T>> recordFields(final Class<T> recordType, final boolean comparable) {
+        if (!recordType.isRecord()) {
+            throw new IllegalArgumentException(recordType.getName() + " is not a record");
+        }
+
+        final MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(recordType, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Unable to access the components of " + recordType.getName(), e);
+        }
+
+        final List<ComparableFieldValue<T>> fields = new ArrayList<>();
+        for (final RecordComponent component : recordType.getRecordComponents()) {
+            if (comparable && !component.getType().isPrimitive() && !Comparable.class.isAssignableFrom(component.getType())) {
+                throw new IllegalArgumentException("Component " + component.getName() + " of " + recordType.getName() + " is not comparable");
+            }
+
+            fields.add(field(lookup, recordType, component, comparable));
+        }
+        return fields;
+    }
+
+    private static <T> ComparableFieldValue<T> field(final MethodHandles.Lookup lookup, final Class<T> recordType, final RecordComponent component,
+                                                     final boolean comparable) {
+        final Class<?> type = component.getType();
+        final String name = component.getName();
+        final Function<T, ?> accessor = accessor(lookup, recordType, component, Function.class, "apply", Object.class);
+
+        if (type == int.class || type == short.class || type == byte.class || type == char.class) {
+            return new IntFieldValue<>(accessor(lookup, recordType, component, ToIntFunction.class, "applyAsInt", int.class), name, accessor);
+        } else if (type == long.class) {
+            return new LongFieldValue<>(accessor(lookup, recordType, component, ToLongFunction.class, "applyAsLong", long.class), name, accessor);
+        } else if (type == float.class) {
+            return new FloatFieldValue<>(accessor(lookup, recordType, component, ToDoubleFunction.class, "applyAsDouble", double.class), name, accessor);
+        } else if (type == double.class) {
+            return new DoubleFieldValue<>(accessor(lookup, recordType, component, ToDoubleFunction.class, "applyAsDouble", double.class), name, accessor);
+        }
+        return new ComparableFieldValue<>(true, accessor, name, comparable ? Comparator.nullsFirst(Comparator.naturalOrder()) : null, accessor);
+    }
+
+    /**
+     * Bind the component's accessor to a functional interface, converting the component's type to the given return type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <F> F accessor(final MethodHandles.Lookup lookup, final Class<?> recordType, final RecordComponent component,
+                                  final Class<? super F> functionType, final String methodName, final Class<?> returnType) {
+        try {
+            final MethodHandle getter = lookup.unreflect(component.getAccessor());
+            final Class<?> instantiatedReturnType = returnType.isPrimitive() ? returnType : getter.type().wrap().returnType();
+            final CallSite site = LambdaMetafactory.metafactory(lookup, methodName, MethodType.methodType(functionType),
+                    MethodType.methodType(returnType, Object.class), getter, MethodType.methodType(instantiatedReturnType, recordType));
+            return (F) site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Unable to access component " + component.getName() + " of " + recordType.getName(), e);
+        }
+    }
+
+    /**
+     * Atomically set the bits of the mask in the {@code long} at the given byte index of the buffer, without locking. The buffer must be direct and the
+     * index aligned to a {@code long}.
+     * @return The value before the bits were set.
+     */
+    static long getAndBitwiseOr(final ByteBuffer buffer, final int index, final long mask) {
+        return (long) BUFFER_LONGS.getAndBitwiseOr(buffer, index, mask);
+    }
+}
@@ -0,0 +1,189 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Optional;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the core operations stay within a budget of allocated bytes per call once they have been warmed up. Values are chosen outside the
+ * {@linkplain Integer#valueOf(int)} cache so that any boxing shows up.
+ */
+public class AllocationBudgetTest {
+
+    private static final int WARM_UP = 50_000;
+    private static final int ITERATIONS = 100_000;
+    // Allows for anything allocated by reading the counter itself
+    private static final long MEASUREMENT_ALLOWANCE = 1024;
+
+    private static final long NO_ALLOCATION = 0;
+    // Two boxed values per call, allowing for uncompressed object headers
+    private static final long BOXED_PRIMITIVE_BUDGET = 48;
+
+    private static final ComparableEqualsHashCode<Child> CHILD = Aequum.builder(Child.class)
+            .withComparableField(Child::getName)
+            .build();
+
+    private final Dummy one = new Dummy("name", 1_000_000, 2_000_000_000_000L, 3.5, Optional.of("optional"), new Child("child"), new Object[] {"a", 1_000_000});
+    private final Dummy two = new Dummy("name", 1_000_000, 2_000_000_000_000L, 3.5, Optional.of("optional"), new Child("child"), new Object[] {"a", 1_000_000});
+
+    private int sink;
+
+    @Test
+    public void objectFieldShouldNotAllocate() throws Exception {
+        assertComparableWithinBudget("object", Aequum.builder(Dummy.class).withComparableField(Dummy::getName).build(), NO_ALLOCATION);
+    }
+
+    @Test
+    public void primitiveFieldsShouldNotAllocate() throws Exception {
+        assertComparableWithinBudget("int", Aequum.builder(Dummy.class).withIntField(Dummy::getCount).build(), NO_ALLOCATION);
+        assertComparableWithinBudget("long", Aequum.builder(Dummy.class).withLongField(Dummy::getTotal).build(), NO_ALLOCATION);
+        assertComparableWithinBudget("double", Aequum.builder(Dummy.class).withDoubleField(Dummy::getRatio).build(), NO_ALLOCATION);
+    }
+
+    @Test
+    public void boxedPrimitiveFieldShouldStayWithinBudget() throws Exception {
+        assertComparableWithinBudget("boxed int", Aequum.builder(Dummy.class).withComparableField(Dummy::getCount).build(), BOXED_PRIMITIVE_BUDGET);
+    }
+
+    @Test
+    public void optionalFieldShouldNotAllocate() throws Exception {
+        assertComparableWithinBudget("optional", Aequum.builder(Dummy.class).withOptionalComparableField(Dummy::getOptional).build(), NO_ALLOCATION);
+    }
+
+    @Test
+    public void nullableFieldShouldNotAllocate() throws Exception {
+        assertComparableWithinBudget("nullable", Aequum.builder(Dummy.class).withNullableComparableField(Dummy::getName).build(), NO_ALLOCATION);
+    }
+
+    @Test
+    public void nestedFieldShouldNotAllocate() throws Exception {
+        assertComparableWithinBudget("nested", Aequum.builder(Dummy.class).withNestedField(Dummy::getChild, CHILD).build(), NO_ALLOCATION);
+    }
+
+    @Test
+    public void arrayFieldShouldNotAllocate() throws Exception {
+        final EqualsHashCode<Dummy> definition = Aequum.builder(Dummy.class).withField(Dummy::getArray).build();
+
+        assertWithinBudget("array isEqual", NO_ALLOCATION, () -> sink += definition.isEqual(one, two) ? 1 : 0);
+        assertWithinBudget("array toHashCode", NO_ALLOCATION, () -> sink += definition.toHashCode(one));
+    }
+
+    private void assertComparableWithinBudget(final String fieldType, final ComparableEqualsHashCode<Dummy> definition, final long bytesPerCall) {
+        assertWithinBudget(fieldType + " isEqual", bytesPerCall, () -> sink += definition.isEqual(one, two) ? 1 : 0);
+        assertWithinBudget(fieldType + " toHashCode", bytesPerCall, () -> sink += definition.toHashCode(one));
+        assertWithinBudget(fieldType + " compare", bytesPerCall, () -> sink += definition.compare(one, two));
+    }
+
+    private static void assertWithinBudget(final String operation, final long bytesPerCall, final Runnable call) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP; i++) {
+            call.run();
+        }
+
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        final long budget = bytesPerCall * ITERATIONS + MEASUREMENT_ALLOWANCE;
+        assertTrue(operation + " allocated " + allocated + " bytes over " + ITERATIONS + " calls, budget is " + budget, allocated <= budget);
+    }
+
+    private static class Child {
+        private final String name;
+
+        Child(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class Dummy {
+        private final String name;
+        private final int count;
+        private final long total;
+        private final double ratio;
+        private final Optional<String> optional;
+        private final Child child;
+        private final Object[] array;
+
+        Dummy(final String name, final int count, final long total, final double ratio, final Optional<String> optional, final Child child,
+              final Object[] array) {
+            this.name = name;
+            this.count = count;
+            this.total = total;
+            this.ratio = ratio;
+            this.optional = optional;
+            this.child = child;
+            this.array = array;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public Optional<String> getOptional() {
+            return optional;
+        }
+
+        public Child getChild() {
+            return child;
+        }
+
+        public Object[] getArray() {
+            return array;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+    private static final EqualsHashCode<Point> POINT = Aequum.builder(Point.class)
+            .withIntField(Point::getX)
+            .withIntField(Point::getY)
+            .withField(Point::getLabel)
+            .build();
+
+    @Test
+    public void filterShouldContainEveryInsertedObject() throws Exception {
+        for (final BloomFilter<Point> subject : filters(10_000, 0.01)) {
+            for (int i = 0; i < 10_000; i++) {
+                subject.put(new Point(i, -i, "label"));
+            }
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(subject.mightContain(new Point(i, -i, "label")));
+            }
+        }
+    }
+
+    @Test
+    public void filterShouldGiveFalsePositivesNearTheRequestedRate() throws Exception {
+        for (final BloomFilter<Point> subject : filters(10_000, 0.01)) {
+            for (int i = 0; i < 10_000; i++) {
+                subject.put(new Point(i, 0, "label"));
+            }
+
+            int falsePositives = 0;
+            for (int i = 0; i < 100_000; i++) {
+                if (subject.mightContain(new Point(i, 1, "label"))) {
+                    falsePositives++;
+                }
+            }
+            assertThat(falsePositives, lessThan(2_000));
+            assertThat(subject.getExpectedFalsePositiveRate(), lessThan(0.02));
+        }
+    }
+
+    @Test
+    public void filterShouldDistinguishObjectsWithTheSameHashCode() throws Exception {
+        final BloomFilter<Point> subject = BloomFilter.create(POINT, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            subject.put(new Point(0, 31 + i, null));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            final Point point = new Point(1, i, null);
+            assertEquals(POINT.toHashCode(new Point(0, 31 + i, null)), POINT.toHashCode(point));
+            if (subject.mightContain(point)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives, lessThan(200));
+    }
+
+    @Test
+    public void putShouldReportWhetherBitsChanged() throws Exception {
+        final BloomFilter<Point> subject = BloomFilter.create(POINT, 100, 0.01);
+
+        assertTrue(subject.put(new Point(1, 2, "a")));
+        assertFalse(subject.put(new Point(1, 2, "a")));
+    }
+
+    @Test
+    public void concurrentInsertsShouldNotLoseBits() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final BloomFilter<Point> subject : filters(100_000, 0.01)) {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < 25_000; i++) {
+                            subject.put(new Point(thread, i, "label"));
+                        }
+                    }));
+                }
+                for (final Future<?> future : futures) {
+                    future.get();
+                }
+
+                for (int t = 0; t < 4; t++) {
+                    for (int i = 0; i < 25_000; i++) {
+                        assertTrue(subject.mightContain(new Point(t, i, "label")));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void mergeShouldGiveTheUnionOfBothFilters() throws Exception {
+        final BloomFilter<Point> subject = BloomFilter.create(POINT, 1_000, 0.01);
+        final BloomFilter<Point> other = BloomFilter.createOffHeap(POINT, 1_000, 0.01);
+        for (int i = 0; i < 500; i++) {
+            subject.put(new Point(i, 0, "a"));
+            other.put(new Point(i, 1, "b"));
+        }
+
+        subject.merge(other);
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(subject.mightContain(new Point(i, 0, "a")));
+            assertTrue(subject.mightContain(new Point(i, 1, "b")));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeShouldRejectFiltersOfDifferentSizes() throws Exception {
+        BloomFilter.create(POINT, 1_000, 0.01).merge(BloomFilter.create(POINT, 2_000, 0.01));
+    }
+
+    @Test
+    public void filterShouldBeReadBackAfterBeingWritten() throws Exception {
+        final BloomFilter<Point> subject = BloomFilter.createOffHeap(POINT, 1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            subject.put(new Point(i, i, "label"));
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        subject.writeTo(out);
+        final BloomFilter<Point> read = BloomFilter.readFrom(POINT, new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(subject.getBitCount(), read.getBitCount());
+        assertEquals(subject.getHashFunctions(), read.getHashFunctions());
+        for (int i = 0; i < 10_000; i++) {
+            final Point point = new Point(i, i, "label");
+            assertEquals(subject.mightContain(point), read.mightContain(point));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readFromShouldRejectStreamWithoutFilter() throws Exception {
+        BloomFilter.readFrom(POINT, new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createShouldRejectInvalidFalsePositiveRate() throws Exception {
+        BloomFilter.create(POINT, 1_000, 0);
+    }
+
+    @Test
+    public void longHashCodeShouldBeTheSameForEqualObjectsAndBoxedFields() throws Exception {
+        final EqualsHashCode<Point> boxed = Aequum.builder(Point.class)
+                .withField(Point::getX)
+                .withField(Point::getY)
+                .withField(Point::getLabel)
+                .build();
+
+        assertEquals(POINT.toLongHashCode(new Point(1, 2, "a")), POINT.toLongHashCode(new Point(1, 2, new String("a"))));
+        assertEquals(boxed.toLongHashCode(new Point(1_000, -2, null)), POINT.toLongHashCode(new Point(1_000, -2, null)));
+    }
+
+    private static List<BloomFilter<Point>> filters(final long expectedInsertions, final double falsePositiveRate) {
+        final List<BloomFilter<Point>> filters = new ArrayList<>();
+        filters.add(BloomFilter.create(POINT, expectedInsertions, falsePositiveRate));
+        filters.add(BloomFilter.createOffHeap(POINT, expectedInsertions, falsePositiveRate));
+        return filters;
+    }
+
+    private static class Point {
+        private final int x;
+        private final int y;
+        private final String label;
+
+        Point(final int x, final int y, final String label) {
+            this.x = x;
+            this.y = y;
+            this.label = label;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+}
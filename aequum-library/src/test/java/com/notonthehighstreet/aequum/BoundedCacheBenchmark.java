@@ -0,0 +1,171 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Compares the throughput of {@linkplain BoundedCache} against the usual approach of wrapping each key in an object whose
+ * {@linkplain Object#equals(Object) equals} and {@linkplain Object#hashCode() hashCode} delegate to the definition and storing it in a map: a
+ * synchronised LRU {@linkplain LinkedHashMap} bounded to the same size as the cache, and an unbounded {@linkplain ConcurrentHashMap} as the upper limit
+ * for a map that never evicts. The keys follow a skewed distribution so that some are far more popular than others.
+ * <p>
+ *     Run with {@code java -cp ... com.notonthehighstreet.aequum.BoundedCacheBenchmark [threads] [seconds]}.
+ * </p>
+ */
+public class BoundedCacheBenchmark {
+
+    private static final EqualsHashCode<Key> KEY = Aequum.builder(Key.class)
+            .withField(Key::getRegion)
+            .withIntField(Key::getId)
+            .build();
+
+    private static final int DISTINCT_KEYS = 1 << 20;
+    private static final int CACHE_SIZE = 1 << 16;
+    private static final int SAMPLES = 1 << 22;
+
+    public static void main(final String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        final Key[] keys = skewedKeys();
+        for (int round = 0; round < 3; round++) {
+            final BoundedCache<Key, Integer> cache = BoundedCache.builder(KEY).withMaximumSize(CACHE_SIZE).withConcurrencyLevel(threads * 4).build();
+            report("BoundedCache", run(threads, seconds, keys, key -> cache.computeIfAbsent(key, Key::getId)), cache.stats().getHitRate());
+
+            final LongAdder misses = new LongAdder();
+            final Map<WrappedKey, Integer> lru = Collections.synchronizedMap(new LinkedHashMap<WrappedKey, Integer>(CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<WrappedKey, Integer> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+            final long lruOperations = run(threads, seconds, keys, key -> lru.computeIfAbsent(new WrappedKey(key), k -> {
+                misses.increment();
+                return k.key.getId();
+            }));
+            report("LinkedHashMap (LRU)", lruOperations, 1 - (double) misses.sum() / (lruOperations * seconds));
+
+            final ConcurrentHashMap<WrappedKey, Integer> map = new ConcurrentHashMap<>();
+            report("ConcurrentHashMap (unbounded)", run(threads, seconds, keys, key -> map.computeIfAbsent(new WrappedKey(key), k -> k.key.getId())), -1);
+        }
+    }
+
+    private static Key[] skewedKeys() {
+        // Roughly Zipfian: the cube of a uniform value favours the low ids
+        final Random random = new Random(1);
+        final Key[] keys = new Key[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            final double uniform = random.nextDouble();
+            final int id = (int) (uniform * uniform * uniform * DISTINCT_KEYS);
+            keys[i] = new Key(id % 2 == 0 ? "north" : "south", id);
+        }
+        return keys;
+    }
+
+    private static long run(final int threads, final int seconds, final Key[] keys, final Function<Key, Integer> lookup) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long[] operations = new long[threads];
+        final List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            final Thread worker = new Thread(() -> {
+                long count = 0;
+                int index = thread * (SAMPLES / threads);
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1_000; i++) {
+                        lookup.apply(keys[index]);
+                        index = (index + 1) & (SAMPLES - 1);
+                    }
+                    count += 1_000;
+                }
+                operations[thread] = count;
+                done.countDown();
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        done.await();
+
+        long total = 0;
+        for (final long count : operations) {
+            total += count;
+        }
+        return total / seconds;
+    }
+
+    private static void report(final String name, final long operationsPerSecond, final double hitRate) {
+        System.out.printf("%-32s %,15d ops/s%s%n", name, operationsPerSecond, hitRate < 0 ? "" : String.format("  hit rate %.3f", hitRate));
+    }
+
+    private static final class WrappedKey {
+        private final Key key;
+
+        WrappedKey(final Key key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof WrappedKey && KEY.isEqual(key, ((WrappedKey) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return KEY.toHashCode(key);
+        }
+    }
+
+    private static final class Key {
+        private final String region;
+        private final int id;
+
+        Key(final String region, final int id) {
+            this.region = region;
+            this.id = id;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+public class BoundedCacheTest {
+
+    private static final EqualsHashCode<Key> KEY = Aequum.builder(Key.class)
+            .withField(Key::getId)
+            .build();
+
+    @Test
+    public void cacheShouldMatchKeysUsingTheDefinition() throws Exception {
+        final BoundedCache<Key, String> subject = BoundedCache.builder(KEY).withMaximumSize(10).build();
+
+        subject.put(new Key(1, "first"), "one");
+
+        assertEquals("one", subject.get(new Key(1, "second")));
+        assertNull(subject.get(new Key(2, "first")));
+    }
+
+    @Test
+    public void computeIfAbsentShouldOnlyCalculateMissingValues() throws Exception {
+        final BoundedCache<Key, String> subject = BoundedCache.builder(KEY).withMaximumSize(10).build();
+        final AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("1", subject.computeIfAbsent(new Key(1, "a"), k -> Integer.toString(calls.incrementAndGet())));
+        assertEquals("1", subject.computeIfAbsent(new Key(1, "b"), k -> Integer.toString(calls.incrementAndGet())));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, subject.stats().getHitCount());
+        assertEquals(1, subject.stats().getMissCount());
+    }
+
+    @Test
+    public void cacheShouldStayWithinMaximumSize() throws Exception {
+        final BoundedCache<Key, Integer> subject = BoundedCache.builder(KEY).withMaximumSize(100).build();
+
+        for (int i = 0; i < 10_000; i++) {
+            subject.put(new Key(i, null), i);
+            assertThat(subject.size(), lessThanOrEqualTo(100L));
+        }
+        assertEquals(10_000 - subject.size(), subject.stats().getEvictionCount());
+    }
+
+    @Test
+    public void cacheShouldStayWithinMaximumWeight() throws Exception {
+        final BoundedCache<Key, String> subject = BoundedCache.builder(KEY)
+                .withMaximumWeight(1_000, (Key k, String v) -> v.length())
+                .withConcurrencyLevel(1)
+                .build();
+
+        for (int i = 0; i < 1_000; i++) {
+            subject.put(new Key(i, null), new String(new char[i % 50]));
+            assertThat(subject.weight(), lessThanOrEqualTo(1_000L));
+        }
+        assertThat(subject.weight(), greaterThan(900L));
+    }
+
+    @Test
+    public void entriesReadAgainShouldSurviveAScan() throws Exception {
+        final BoundedCache<Key, Integer> subject = BoundedCache.builder(KEY).withMaximumSize(100).withConcurrencyLevel(1).build();
+        for (int i = 0; i < 50; i++) {
+            subject.put(new Key(i, null), i);
+            subject.get(new Key(i, null));
+        }
+
+        for (int i = 1_000; i < 2_000; i++) {
+            subject.put(new Key(i, null), i);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), subject.get(new Key(i, null)));
+        }
+    }
+
+    @Test
+    public void replacingAProtectedEntryWithAHeavierOneShouldDemoteOtherProtectedEntries() throws Exception {
+        final BoundedCache<Key, Integer> subject = BoundedCache.builder(KEY)
+                .withMaximumWeight(100, (Key k, Integer v) -> v)
+                .withConcurrencyLevel(1)
+                .build();
+        for (int i = 0; i < 4; i++) {
+            subject.put(new Key(i, null), 10);
+            subject.get(new Key(i, null));
+        }
+
+        // Takes the protected entries over their share of the weight, so the least recently used one goes back on probation
+        subject.put(new Key(3, null), 60);
+        for (int i = 1_000; i < 1_005; i++) {
+            subject.put(new Key(i, null), 10);
+        }
+
+        assertNull(subject.get(new Key(0, null)));
+        for (int i = 1; i < 3; i++) {
+            assertEquals(Integer.valueOf(10), subject.get(new Key(i, null)));
+        }
+        assertEquals(Integer.valueOf(60), subject.get(new Key(3, null)));
+    }
+
+    @Test
+    public void removeShouldReturnTheRemovedValue() throws Exception {
+        final BoundedCache<Key, String> subject = BoundedCache.builder(KEY).withMaximumSize(10).build();
+        subject.put(new Key(1, null), "one");
+
+        assertEquals("one", subject.remove(new Key(1, "other")));
+        assertNull(subject.remove(new Key(1, null)));
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    public void clearShouldRemoveEveryEntry() throws Exception {
+        final BoundedCache<Key, String> subject = BoundedCache.builder(KEY).withMaximumSize(1_000).build();
+        for (int i = 0; i < 500; i++) {
+            subject.put(new Key(i, null), "value");
+        }
+
+        subject.clear();
+
+        assertEquals(0, subject.size());
+        assertEquals(0, subject.weight());
+        assertEquals(0, subject.stats().getEvictionCount());
+    }
+
+    @Test
+    public void concurrentUseShouldKeepValuesConsistent() throws Exception {
+        final BoundedCache<Key, Integer> subject = BoundedCache.builder(KEY).withMaximumSize(1_000).build();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        final int id = (i * 7919) % 2_000;
+                        assertEquals(Integer.valueOf(id * 2), subject.computeIfAbsent(new Key(id, null), k -> k.getId() * 2));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(subject.size(), lessThanOrEqualTo(1_000L));
+        assertEquals(200_000, subject.stats().getHitCount() + subject.stats().getMissCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildShouldRequireABound() throws Exception {
+        BoundedCache.builder(KEY).build();
+    }
+
+    private static class Key {
+        private final int id;
+        private final String label;
+
+        Key(final int id, final String label) {
+            this.id = id;
+            this.label = label;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColumnarBatchTest {
+
+    private static final ComparableEqualsHashCode<Row> ROW = Aequum.builder(Row.class)
+            .withComparableField(Row::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .withIntField(Row::getQuantity)
+            .withLongField(Row::getTimestamp)
+            .withDoubleField(Row::getPrice)
+            .build();
+
+    private static final EqualsHashCode<Row> INCOMPARABLE_ROW = Aequum.builder(Row.class)
+            .withField(Row::getTags)
+            .withIntField(Row::getQuantity)
+            .build();
+
+    private static final ComparableEqualsHashCode<Row> NULLABLE_ROW = Aequum.builder(Row.class)
+            .withNullableComparableField(Row::getName)
+            .build();
+
+    private final Random random = new Random(40);
+
+    @Test
+    public void hashCodesShouldMatchDefinition() throws Exception {
+        final List<Row> rows = rows(5_000);
+
+        assertArrayEquals(rows.stream().mapToInt(ROW::toHashCode).toArray(), ROW.toColumns(rows).hashCodes());
+        assertArrayEquals(rows.stream().mapToInt(INCOMPARABLE_ROW::toHashCode).toArray(), INCOMPARABLE_ROW.toColumns(rows).hashCodes());
+    }
+
+    @Test
+    public void isEqualShouldMatchDefinition() throws Exception {
+        final List<Row> rows = rows(500);
+        final ColumnarBatch<Row> batch = ROW.toColumns(rows);
+        final ColumnarBatch<Row> incomparableBatch = INCOMPARABLE_ROW.toColumns(rows);
+
+        for (int i = 0; i < rows.size(); i++) {
+            for (int j = 0; j < rows.size(); j++) {
+                assertEquals(ROW.isEqual(rows.get(i), rows.get(j)), batch.isEqual(i, j));
+                assertEquals(INCOMPARABLE_ROW.isEqual(rows.get(i), rows.get(j)), incomparableBatch.isEqual(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void distinctShouldGiveFirstOfEachGroupOfEqualRows() throws Exception {
+        final List<Row> rows = rows(5_000);
+
+        assertArrayEquals(distinct(INCOMPARABLE_ROW, rows), INCOMPARABLE_ROW.toColumns(rows).distinct());
+        assertArrayEquals(distinct(ROW, rows), ROW.toColumns(rows).distinct());
+    }
+
+    @Test
+    public void sortedShouldMatchStableSortOfRows() throws Exception {
+        final List<Row> rows = rows(5_000);
+        final int[] expected = IntStream.range(0, rows.size()).boxed()
+                .sorted((a, b) -> ROW.compare(rows.get(a), rows.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        assertArrayEquals(expected, ROW.toColumns(rows).sorted());
+    }
+
+    @Test
+    public void sortedDistinctShouldSortFirstOfEachGroup() throws Exception {
+        final List<Row> rows = rows(5_000);
+        final int[] expected = Arrays.stream(distinct(ROW, rows)).boxed()
+                .sorted((a, b) -> ROW.compare(rows.get(a), rows.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        assertArrayEquals(expected, ROW.toColumns(rows).sortedDistinct());
+    }
+
+    @Test
+    public void emptyBatchShouldHaveNoRows() throws Exception {
+        final ColumnarBatch<Row> batch = ROW.toColumns(new ArrayList<>());
+
+        assertEquals(0, batch.size());
+        assertEquals(0, batch.distinct().length);
+        assertEquals(0, batch.sorted().length);
+    }
+
+    @Test
+    public void dictionaryColumnShouldReadTheFieldOncePerRow() throws Exception {
+        final List<Row> rows = rows(1_000);
+        final ColumnarBatch<Row> batch = NULLABLE_ROW.toColumns(rows);
+        final int[] hashCodes = batch.hashCodes();
+        final int[] sorted = batch.sorted();
+        final int[] distinct = batch.distinct();
+
+        for (final Row row : rows) {
+            assertEquals(1, row.getNameReads());
+        }
+        assertArrayEquals(rows.stream().mapToInt(NULLABLE_ROW::toHashCode).toArray(), hashCodes);
+        assertArrayEquals(IntStream.range(0, rows.size()).boxed()
+                .sorted((a, b) -> NULLABLE_ROW.compare(rows.get(a), rows.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray(), sorted);
+        assertArrayEquals(distinct(NULLABLE_ROW, rows), distinct);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sortedShouldRequireComparableDefinition() throws Exception {
+        INCOMPARABLE_ROW.toColumns(rows(10)).sorted();
+    }
+
+    private static int[] distinct(final EqualsHashCode<Row> definition, final List<Row> rows) {
+        final List<Integer> distinct = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            final Row row = rows.get(i);
+            if (distinct.stream().noneMatch(j -> definition.isEqual(rows.get(j), row))) {
+                distinct.add(i);
+            }
+        }
+        return distinct.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private List<Row> rows(final int count) {
+        final String[] names = {null, "apple", "Apple", "banana", "cherry", "BANANA"};
+        final double[] prices = {0.0, -0.0, 1.5, Double.NaN};
+        final List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(names[random.nextInt(names.length)], random.nextInt(3) - 1, random.nextInt(2) * 1_000_000_000_000L,
+                    prices[random.nextInt(prices.length)], random.nextBoolean() ? new String[] {"a"} : new String[] {"a", "b"}));
+        }
+        return rows;
+    }
+
+    private static class Row {
+        private final String name;
+        private final int quantity;
+        private final long timestamp;
+        private final double price;
+        private final String[] tags;
+        private int nameReads;
+
+        Row(final String name, final int quantity, final long timestamp, final double price, final String[] tags) {
+            this.name = name;
+            this.quantity = quantity;
+            this.timestamp = timestamp;
+            this.price = price;
+            this.tags = tags;
+        }
+
+        public String getName() {
+            nameReads++;
+            return name;
+        }
+
+        public int getNameReads() {
+            return nameReads;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public String[] getTags() {
+            return tags;
+        }
+    }
+}
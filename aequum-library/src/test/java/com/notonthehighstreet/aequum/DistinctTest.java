@@ -0,0 +1,171 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DistinctTest {
+
+    private EqualsHashCode<Dummy> definition;
+
+    @Before
+    public void setUp() throws Exception {
+        definition = Aequum.builder(Dummy.class).withField(Dummy::getOne).withToStringField(Dummy::getTwo).build();
+    }
+
+    @Test
+    public void exactShouldOnlyAcceptFirstOfEqualObjects() throws Exception {
+        final List<String> result = Stream.of(dummy("a", "1"), dummy("b", "2"), dummy("a", "3"), dummy(null, "4"), dummy(null, "5"))
+                .filter(Distinct.exact(definition))
+                .map(Dummy::getTwo)
+                .collect(toList());
+
+        assertThat(result, contains("1", "2", "4"));
+    }
+
+    @Test
+    public void exactShouldHandleCollidingHashCodes() throws Exception {
+        // "Aa" and "BB" share the same hash code
+        final Distinct<Dummy> subject = Distinct.exact(definition);
+
+        assertTrue(subject.add(dummy("Aa", "1")));
+        assertTrue(subject.add(dummy("BB", "2")));
+        assertFalse(subject.add(dummy("Aa", "3")));
+        assertFalse(subject.add(dummy("BB", "4")));
+    }
+
+    @Test
+    public void exactShouldRememberManyObjects() throws Exception {
+        final Distinct<Dummy> subject = Distinct.exact(definition);
+
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(subject.add(dummy(Integer.toString(i), null))));
+        IntStream.range(0, 10_000).forEach(i -> assertFalse(subject.add(dummy(Integer.toString(i), null))));
+    }
+
+    @Test
+    public void windowedShouldForgetObjectsOutsideOfTheWindow() throws Exception {
+        final Distinct<Dummy> subject = Distinct.windowed(definition, 2);
+
+        assertTrue(subject.add(dummy("a", null)));
+        assertTrue(subject.add(dummy("b", null)));
+        assertFalse(subject.add(dummy("a", null)));
+        assertTrue(subject.add(dummy("c", null)));
+        assertTrue(subject.add(dummy("a", null)));
+        assertFalse(subject.add(dummy("c", null)));
+    }
+
+    @Test
+    public void windowedShouldStayConsistentOverManyEvictions() throws Exception {
+        final Distinct<Dummy> subject = Distinct.windowed(definition, 100);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(subject.add(dummy(Integer.toString(i), null)));
+            assertFalse(subject.add(dummy(Integer.toString(i - Math.min(i, 99)), null)));
+        }
+    }
+
+    @Test
+    public void approximateShouldAlwaysRejectDuplicates() throws Exception {
+        final Distinct<Dummy> subject = Distinct.approximate(definition, 1_000, 0.01);
+
+        IntStream.range(0, 1_000).forEach(i -> subject.add(dummy(Integer.toString(i), null)));
+        IntStream.range(0, 1_000).forEach(i -> assertFalse(subject.add(dummy(Integer.toString(i), null))));
+    }
+
+    @Test
+    public void approximateShouldRarelyRejectDistinctObjects() throws Exception {
+        final Distinct<Dummy> subject = Distinct.approximate(definition, 10_000, 0.01);
+
+        final long rejected = IntStream.range(0, 10_000).filter(i -> !subject.add(dummy("value" + i, null))).count();
+
+        assertThat(rejected, lessThan(300L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void approximateShouldRejectInvalidFalsePositiveRate() throws Exception {
+        Distinct.approximate(definition, 1_000, 1);
+    }
+
+    @Test
+    public void everyFilterShouldRejectNull() throws Exception {
+        // String.valueOf accepts null, so only the filters themselves can reject it
+        final EqualsHashCode<String> nullSafe = Aequum.builder(String.class).withField(String::valueOf).build();
+
+        for (final Distinct<String> subject : Arrays.asList(Distinct.exact(nullSafe), Distinct.windowed(nullSafe, 10), Distinct.approximate(nullSafe, 100, 0.01))) {
+            try {
+                subject.add(null);
+                fail("Expected " + subject.getClass().getSimpleName() + " to reject null");
+            } catch (final NullPointerException e) {
+                assertEquals("Null elements are not supported", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void toListShouldCollectParallelStreams() throws Exception {
+        final List<Dummy> result = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> dummy(Integer.toString(i % 100), null))
+                .collect(Distinct.toList(() -> Distinct.exact(definition)));
+
+        assertEquals(100, result.size());
+    }
+
+    private Dummy dummy(final String one, final String two) {
+        final Dummy dummy = new Dummy();
+        dummy.one = one;
+        dummy.two = two;
+        return dummy;
+    }
+
+    private static class Dummy {
+        private String one;
+        private String two;
+
+        public String getOne() {
+            return one;
+        }
+
+        public String getTwo() {
+            return two;
+        }
+    }
+}
@@ -29,12 +29,26 @@ package com.notonthehighstreet.aequum;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.*;
 
 public class EqualsHashCodeTest {
 
+    private static final ComparableEqualsHashCode<Part> PART = Aequum.builder(Part.class)
+            .withIntField(o -> o.a).withIntField(o -> o.b).withIntField(o -> o.c).withIntField(o -> o.d)
+            .withIntField(o -> o.e).withIntField(o -> o.f).withIntField(o -> o.g).withIntField(o -> o.h)
+            .build();
+
+    // Each nested field inlines a guard and the eight fields of the part, giving 72 fields
+    private static final ComparableEqualsHashCode<Wide> WIDE = Aequum.builder(Wide.class)
+            .withNestedField(o -> o.p0, PART).withNestedField(o -> o.p1, PART).withNestedField(o -> o.p2, PART).withNestedField(o -> o.p3, PART)
+            .withNestedField(o -> o.p4, PART).withNestedField(o -> o.p5, PART).withNestedField(o -> o.p6, PART).withNestedField(o -> o.p7, PART)
+            .build();
+
     private EqualsHashCode<Dummy> subject;
 
     @Before
@@ -87,6 +101,59 @@ public class EqualsHashCodeTest {
         assertEquals("Dummy{one=*****}", Aequum.builder(Dummy.class).withField(Dummy::getOne, o -> "*****").build().toString(dummy("hidden value", null)));
     }
 
+    @Test
+    public void diffShouldBeZeroForEqualObjects() throws Exception {
+        assertEquals(0L, subject.diff(dummy("one", "two", "three"), dummy("one", "two", "three")));
+    }
+
+    @Test
+    public void diffShouldSetBitOfEachDifferingField() throws Exception {
+        final long diff = subject.diff(dummy("one", "two", "three"), dummy("one", "2", "3"));
+
+        assertEquals(0b110L, diff);
+        assertEquals(Arrays.asList("two", "three"), subject.getFieldNames(diff));
+    }
+
+    @Test
+    public void diffBitsShouldMatchDiff() throws Exception {
+        final Dummy one = dummy("one", "two", "three");
+        final Dummy two = dummy(null, "two", "3");
+
+        assertEquals(BitSet.valueOf(new long[] {subject.diff(one, two)}), subject.diffBits(one, two));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void diffShouldRejectMoreThan64Fields() throws Exception {
+        assertEquals(72, WIDE.getFieldNames().size());
+        WIDE.diff(new Wide(), new Wide());
+    }
+
+    @Test
+    public void getFieldNamesShouldMapDiffBitsBeyond64Fields() throws Exception {
+        final Wide one = new Wide();
+        final Wide two = new Wide();
+        two.p0.b = 1;
+        two.p7.h = 1;
+
+        final BitSet diff = WIDE.diffBits(one, two);
+
+        assertEquals(BitSet.valueOf(new long[] {0b100L, 0b10000000L}), diff);
+        assertEquals(Arrays.asList("p0.b", "p7.h"), WIDE.getFieldNames(diff));
+    }
+
+    @Test
+    public void getFieldNamesShouldAgreeForLongAndBitSetDiffs() throws Exception {
+        final Dummy one = dummy("one", "two", "three");
+        final Dummy two = dummy(null, "two", "3");
+
+        assertEquals(subject.getFieldNames(subject.diff(one, two)), subject.getFieldNames(subject.diffBits(one, two)));
+    }
+
+    @Test
+    public void getFieldNamesShouldOnlyContainEqualityFieldsInOrder() throws Exception {
+        assertEquals(Arrays.asList("one", "two", "three"), subject.getFieldNames());
+    }
+
     private Dummy dummy(final String one, final String two, final String... three) {
         final Dummy dummy = new Dummy();
         dummy.one = one;
@@ -109,4 +176,26 @@ public class EqualsHashCodeTest {
             return three;
         }
     }
+
+    private static class Wide {
+        private final Part p0 = new Part();
+        private final Part p1 = new Part();
+        private final Part p2 = new Part();
+        private final Part p3 = new Part();
+        private final Part p4 = new Part();
+        private final Part p5 = new Part();
+        private final Part p6 = new Part();
+        private final Part p7 = new Part();
+    }
+
+    private static class Part {
+        private int a;
+        private int b;
+        private int c;
+        private int d;
+        private int e;
+        private int f;
+        private int g;
+        private int h;
+    }
 }
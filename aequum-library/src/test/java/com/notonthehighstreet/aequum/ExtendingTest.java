@@ -0,0 +1,134 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExtendingTest {
+
+    private static final ComparableEqualsHashCode<Parent> PARENT = Aequum.builder(Parent.class)
+            .withComparableField(Parent::getName)
+            .withToStringField(Parent::getNote)
+            .build();
+
+    private static final ComparableEqualsHashCode<Child> CHILD = Aequum.extending(PARENT, Child.class)
+            .withIntField(Child::getAge)
+            .build();
+
+    @Test
+    public void extendingShouldReuseEveryParentField() throws Exception {
+        assertSame(PARENT.getDefinedFields().get(0), CHILD.getDefinedFields().get(0));
+        assertSame(PARENT.getDefinedFields().get(1), CHILD.getDefinedFields().get(1));
+        assertEquals(Arrays.asList("name", "age"), CHILD.getFieldNames());
+    }
+
+    @Test
+    public void extendedDefinitionShouldUseParentAndChildFields() throws Exception {
+        assertTrue(CHILD.isEqual(new Child("a", "x", 1), new Child("a", "y", 1)));
+        assertFalse(CHILD.isEqual(new Child("a", "x", 1), new Child("b", "x", 1)));
+        assertFalse(CHILD.isEqual(new Child("a", "x", 1), new Child("a", "x", 2)));
+        assertEquals(CHILD.toHashCode(new Child("a", "x", 1)), CHILD.toHashCode(new Child("a", "y", 1)));
+    }
+
+    @Test
+    public void extendedDefinitionShouldCompareParentFieldsFirst() throws Exception {
+        assertTrue(CHILD.compare(new Child("a", null, 9), new Child("b", null, 1)) < 0);
+        assertTrue(CHILD.compare(new Child("a", null, 1), new Child("a", null, 2)) < 0);
+    }
+
+    @Test
+    public void extendedDefinitionShouldIncludeParentToStringFields() throws Exception {
+        assertEquals("Child{age=1, name=a, note=x}", CHILD.toString(new Child("a", "x", 1)));
+    }
+
+    @Test
+    public void isEqualShouldAcceptSubclassesByDefault() throws Exception {
+        assertTrue(PARENT.isEqual(new Parent("a", null), new Child("a", null, 1)));
+    }
+
+    @Test
+    public void isEqualShouldRejectSubclassesWithExactTypeEquality() throws Exception {
+        final ComparableEqualsHashCode<Parent> parent = Aequum.builder(Parent.class).withComparableField(Parent::getName).withExactTypeEquality().build();
+
+        assertFalse(parent.isEqual(new Parent("a", null), new Child("a", null, 1)));
+        assertFalse(parent.isEqual(new Parent("a", null), null));
+        assertTrue(parent.isEqual(new Parent("a", null), new Parent("a", "x")));
+    }
+
+    @Test
+    public void extendingShouldKeepExactTypeEquality() throws Exception {
+        final EqualsHashCode<Parent> parent = Aequum.builder(Parent.class).withField(Parent::getName).withExactTypeEquality().build();
+        final EqualsHashCode<Child> child = Aequum.extending(parent, Child.class).withIntField(Child::getAge).build();
+
+        assertTrue(child.isEqual(new Child("a", null, 1), new Child("a", null, 1)));
+        assertFalse(child.isEqual(new Child("a", null, 1), new GrandChild("a", null, 1)));
+    }
+
+    private static class Parent {
+        private final String name;
+        private final String note;
+
+        Parent(final String name, final String note) {
+            this.name = name;
+            this.note = note;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getNote() {
+            return note;
+        }
+    }
+
+    private static class Child extends Parent {
+        private final int age;
+
+        Child(final String name, final String note, final int age) {
+            super(name, note);
+            this.age = age;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+    private static class GrandChild extends Child {
+        GrandChild(final String name, final String note, final int age) {
+            super(name, note, age);
+        }
+    }
+}
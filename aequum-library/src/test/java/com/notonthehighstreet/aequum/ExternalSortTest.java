@@ -0,0 +1,315 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ExternalSortTest {
+
+    private static final ComparableEqualsHashCode<Row> ROW = Aequum.builder(Row.class)
+            .withComparableField(Row::getKey)
+            .build();
+
+    private static final RecordCodec<Row> CODEC = new RecordCodec<Row>() {
+        @Override
+        public int encodedSize(final Row value) {
+            return 2 * Integer.BYTES + value.getKey().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public void encode(final Row value, final ByteBuffer buffer) {
+            final byte[] key = value.getKey().getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(value.getSequence());
+            buffer.putInt(key.length);
+            buffer.put(key);
+        }
+
+        @Override
+        public Row decode(final ByteBuffer buffer) {
+            final int sequence = buffer.getInt();
+            final byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            return new Row(new String(key, StandardCharsets.UTF_8), sequence);
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(11);
+
+    @Test
+    public void sortShouldGiveSameOrderAsStableInMemorySort() throws Exception {
+        final List<Row> rows = rows(20_000);
+        final File directory = folder.newFolder();
+
+        final ExternalSort<Row> subject = ExternalSort.builder(ROW, CODEC)
+                .withRunSize(500)
+                .withFanIn(4)
+                .withMemoryBudget(4096)
+                .withTempDirectory(directory.toPath())
+                .build();
+
+        assertArrayEquals(inMemorySort(rows), sort(subject, rows));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void sortShouldSpillWhenMemoryBudgetIsReached() throws Exception {
+        final List<Row> rows = rows(5_000);
+        final File directory = folder.newFolder();
+
+        final ExternalSort<Row> subject = ExternalSort.builder(ROW, CODEC)
+                .withMemoryBudget(100)
+                .withFanIn(2)
+                .withTempDirectory(directory.toPath())
+                .build();
+
+        assertArrayEquals(inMemorySort(rows), sort(subject, rows));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void sortShouldHandleRecordsLargerThanTheReadWindow() throws Exception {
+        final List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final StringBuilder key = new StringBuilder();
+            for (int j = random.nextInt(300); j >= 0; j--) {
+                key.append((char) ('a' + random.nextInt(3)));
+            }
+            rows.add(new Row(key.toString(), i));
+        }
+
+        final ExternalSort<Row> subject = ExternalSort.builder(ROW, CODEC)
+                .withRunSize(7)
+                .withFanIn(3)
+                .withMemoryBudget(64)
+                .withTempDirectory(folder.newFolder().toPath())
+                .build();
+
+        assertArrayEquals(inMemorySort(rows), sort(subject, rows));
+    }
+
+    @Test
+    public void sortShouldNotWriteToDiskWhenInputFitsInOneRun() throws Exception {
+        final List<Row> rows = rows(100);
+        final File directory = folder.newFolder();
+
+        final ExternalSort<Row> subject = ExternalSort.builder(ROW, CODEC).withTempDirectory(directory.toPath()).build();
+
+        final List<Row> sorted = new ArrayList<>();
+        subject.sort(rows, row -> {
+            sorted.add(row);
+            assertEquals(0, directory.list().length);
+        });
+        assertArrayEquals(inMemorySort(rows), sorted.toArray(new Row[0]));
+    }
+
+    @Test
+    public void sortShouldHandleNoInput() throws Exception {
+        final List<Row> sorted = new ArrayList<>();
+
+        ExternalSort.builder(ROW, CODEC).withRunSize(1).build().sort(new ArrayList<>(), sorted::add);
+
+        assertThat(sorted, empty());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void sortShouldFailWhenTempDirectoryDoesNotExist() throws Exception {
+        final ExternalSort<Row> subject = ExternalSort.builder(ROW, CODEC)
+                .withRunSize(1)
+                .withTempDirectory(new File(folder.getRoot(), "missing").toPath())
+                .build();
+
+        subject.sort(rows(2), row -> { });
+    }
+
+    @Test
+    public void runReaderShouldReadRecordsDecodedAsNullWithoutEndingTheRun() throws Exception {
+        final RecordCodec<Row> emptyKeyAsNull = new RecordCodec<Row>() {
+            @Override
+            public int encodedSize(final Row value) {
+                return CODEC.encodedSize(value);
+            }
+
+            @Override
+            public void encode(final Row value, final ByteBuffer buffer) {
+                CODEC.encode(value, buffer);
+            }
+
+            @Override
+            public Row decode(final ByteBuffer buffer) {
+                final Row row = CODEC.decode(buffer);
+                return row.getKey().isEmpty() ? null : row;
+            }
+        };
+        final Path file = folder.newFile().toPath();
+        try (RunWriter<Row> writer = new RunWriter<>(emptyKeyAsNull, file, 16)) {
+            writer.write(new Row("", 0));
+            writer.write(new Row("a", 1));
+            writer.write(new Row("", 2));
+            writer.write(new Row("b", 3));
+        }
+
+        final List<Row> read = new ArrayList<>();
+        try (RunReader<Row> reader = new RunReader<>(emptyKeyAsNull, file, 16, 0)) {
+            while (!reader.isExhausted()) {
+                read.add(reader.head());
+                reader.advance();
+            }
+        }
+
+        assertEquals(Arrays.asList(null, new Row("a", 1), null, new Row("b", 3)), read);
+        Files.delete(file);
+    }
+
+    @Test
+    public void runReaderShouldNameTheRunWhenItIsTruncated() throws Exception {
+        final Path file = folder.newFile().toPath();
+        try (RunWriter<Row> writer = new RunWriter<>(CODEC, file, 16)) {
+            writer.write(new Row("a", 1));
+            writer.write(new Row("b", 2));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (RunReader<Row> reader = new RunReader<>(CODEC, file, 64, 0)) {
+            reader.advance();
+            fail("Expected the truncated record to be reported");
+        } catch (final EOFException e) {
+            assertThat(e.getMessage(), containsString(file.toString()));
+        }
+    }
+
+    @Test
+    public void runReaderShouldRejectARecordWithANegativeLength() throws Exception {
+        final Path file = folder.newFile().toPath();
+        Files.write(file, ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+
+        try (RunReader<Row> reader = new RunReader<>(CODEC, file, 64, 0)) {
+            fail("Expected the negative length to be reported");
+        } catch (final IOException e) {
+            assertThat(e.getMessage(), containsString(file.toString()));
+        }
+    }
+
+    @Test
+    public void runReaderShouldRejectALengthBeyondTheEndOfTheRun() throws Exception {
+        final Path file = folder.newFile().toPath();
+        Files.write(file, ByteBuffer.allocate(2 * Integer.BYTES).putInt(Integer.MAX_VALUE - Integer.BYTES).putInt(0).array());
+
+        try (RunReader<Row> reader = new RunReader<>(CODEC, file, 64, 0)) {
+            fail("Expected the length to be reported");
+        } catch (final EOFException e) {
+            assertThat(e.getMessage(), containsString(file.toString()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderShouldRejectFanInBelowTwo() throws Exception {
+        ExternalSort.builder(ROW, CODEC).withFanIn(1);
+    }
+
+    private List<Row> rows(final int count) {
+        final List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row("key" + random.nextInt(count / 4 + 1), i));
+        }
+        return rows;
+    }
+
+    private static Row[] inMemorySort(final List<Row> rows) {
+        final List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(ROW::compare);
+        return sorted.toArray(new Row[0]);
+    }
+
+    private static Row[] sort(final ExternalSort<Row> subject, final List<Row> rows) {
+        final List<Row> sorted = new ArrayList<>(rows.size());
+        subject.sort(rows, sorted::add);
+        assertEquals(rows.size(), sorted.size());
+        return sorted.toArray(new Row[0]);
+    }
+
+    private static class Row {
+        private final String key;
+        private final int sequence;
+
+        Row(final String key, final int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getSequence() {
+            return sequence;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Row && key.equals(((Row) o).key) && sequence == ((Row) o).sequence;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + sequence;
+        }
+
+        @Override
+        public String toString() {
+            return key + "#" + sequence;
+        }
+    }
+}
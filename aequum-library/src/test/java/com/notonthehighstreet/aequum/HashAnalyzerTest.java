@@ -0,0 +1,204 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class HashAnalyzerTest {
+
+    static final EqualsHashCode<Point> POINT = Aequum.builder(Point.class)
+            .withField(Point::getX)
+            .withField(Point::getY)
+            .build();
+
+    private static final EqualsHashCode<Point> LABELLED_POINT = Aequum.builder(Point.class)
+            .withField(Point::getLabel)
+            .withField(Point::getX)
+            .build();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(13);
+
+    @Test
+    public void analyzeShouldReportCollisionsOfSmallIntegerPairs() throws Exception {
+        final List<Point> sample = new ArrayList<>();
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                sample.add(new Point(x, y, "point"));
+            }
+        }
+
+        final HashReport subject = HashAnalyzer.analyze(POINT, sample, 1 << 16);
+
+        assertEquals(10_000, subject.getDistinctValues());
+        assertEquals(3_169, subject.getDistinctHashCodes());
+        assertThat(subject.getHashCodeCollisionRate(), greaterThan(0.5));
+        assertThat(subject.getCollisionRate(), greaterThan(2 * subject.getExpectedCollisionRate()));
+        assertThat(subject.getFields().get(1).getAvalanche(), lessThan(0.25));
+    }
+
+    @Test
+    public void analyzeShouldReportCollisionRateCloseToRandomForWellDistributedField() throws Exception {
+        final List<Point> sample = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            sample.add(new Point(random.nextInt(), 0, Long.toHexString(random.nextLong())));
+        }
+
+        final HashReport subject = HashAnalyzer.analyze(LABELLED_POINT, sample, 1 << 15);
+
+        assertEquals(1 << 15, subject.getTableSize());
+        assertThat(subject.getCollisionRate(), lessThan(1.1 * subject.getExpectedCollisionRate()));
+        assertThat(subject.getCollisionRate(), greaterThan(0.9 * subject.getExpectedCollisionRate()));
+        assertThat(subject.getLowEntropyFields(1.0), empty());
+    }
+
+    @Test
+    public void analyzeShouldReportFieldsWithNoEntropy() throws Exception {
+        final List<Point> sample = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            sample.add(new Point(i, 0, "constant"));
+        }
+
+        final HashReport subject = HashAnalyzer.analyze(LABELLED_POINT, sample, 1_000);
+
+        assertThat(subject.getLowEntropyFields(1.0), contains("label"));
+        assertEquals(0.0, subject.getFields().get(0).getEntropy(), 0.0);
+        assertTrue(Double.isNaN(subject.getFields().get(0).getAvalanche()));
+        assertEquals(Math.log(1_000) / Math.log(2), subject.getFields().get(1).getEntropy(), 1e-9);
+        assertEquals(1 << 10, subject.getTableSize());
+    }
+
+    @Test
+    public void analyzeShouldOnlyCountDistinctValues() throws Exception {
+        final List<Point> sample = Arrays.asList(new Point(1, 2, "a"), new Point(1, 2, "b"), new Point(2, 1, "c"));
+
+        final HashReport subject = HashAnalyzer.analyze(POINT, sample, 16);
+
+        assertEquals(3, subject.getSampleSize());
+        assertEquals(2, subject.getDistinctValues());
+        assertEquals(2, subject.getUsedBuckets());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void analyzeShouldRejectNonPositiveTableSize() throws Exception {
+        HashAnalyzer.analyze(POINT, new ArrayList<>(), 0);
+    }
+
+    @Test
+    public void commandLineShouldAnalyseSerialisedSamples() throws Exception {
+        final File samples = folder.newFile();
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(samples))) {
+            out.writeObject(new Point(1, 2, "a"));
+            out.writeObject(new ArrayList<>(Arrays.asList(new Point(3, 4, "b"), new Point(1, 2, "c"))));
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        final int status = HashAnalyzer.run(new String[] {HashAnalyzerTest.class.getName(), "POINT", samples.getPath(), "64"},
+                new PrintStream(out, true, "UTF-8"), System.err);
+
+        assertEquals(0, status);
+        final String report = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(report, containsString("Sample size:           3"));
+        assertThat(report, containsString("Distinct values:       2"));
+        assertThat(report, containsString("Table size:            64"));
+    }
+
+    @Test
+    public void commandLineShouldRefuseToDeserialiseClassesOutsideTheSample() throws Exception {
+        final File samples = folder.newFile();
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(samples))) {
+            out.writeObject(new Point(1, 2, "a"));
+            out.writeObject(new File("b"));
+        }
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        final int status = HashAnalyzer.run(new String[] {HashAnalyzerTest.class.getName(), "POINT", samples.getPath()},
+                System.out, new PrintStream(err, true, "UTF-8"));
+
+        assertEquals(1, status);
+        assertThat(new String(err.toByteArray(), StandardCharsets.UTF_8), containsString("java.io.File"));
+    }
+
+    @Test
+    public void commandLineShouldPrintUsageForMissingArguments() throws Exception {
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        assertEquals(2, HashAnalyzer.run(new String[] {"one"}, System.out, new PrintStream(err, true, "UTF-8")));
+        assertThat(new String(err.toByteArray(), StandardCharsets.UTF_8), containsString("Usage"));
+    }
+
+    private static class Point implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int x;
+        private final int y;
+        private final String label;
+
+        Point(final int x, final int y, final String label) {
+            this.x = x;
+            this.y = y;
+            this.label = label;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NestedFieldValueTest {
+
+    private static final ComparableEqualsHashCode<Child> CHILD = Aequum.builder(Child.class)
+            .withComparableField(Child::getName)
+            .withComparableField(Child::getCount)
+            .build();
+
+    private static final ComparableEqualsHashCode<Parent> NESTED = Aequum.builder(Parent.class)
+            .withComparableField(Parent::getId)
+            .withNestedField(Parent::getFirst, CHILD)
+            .withNestedField(Parent::getSecond, CHILD)
+            .build();
+
+    private static final ComparableEqualsHashCode<Parent> DELEGATING = Aequum.builder(Parent.class)
+            .withComparableField(Parent::getId)
+            .withComparableField(Parent::getFirst)
+            .withComparableField(Parent::getSecond)
+            .build();
+
+    private final Random random = new Random(7);
+
+    @Test
+    public void nestedFieldsShouldGiveSameResultsAsDelegatingToTheField() throws Exception {
+        for (int i = 0; i < 5_000; i++) {
+            final Parent one = parent();
+            final Parent two = parent();
+
+            assertEquals(DELEGATING.isEqual(one, two), NESTED.isEqual(one, two));
+            if (NESTED.isEqual(one, two)) {
+                assertEquals(NESTED.toHashCode(one), NESTED.toHashCode(two));
+                assertEquals(NESTED.toLongHashCode(one), NESTED.toLongHashCode(two));
+            }
+            assertEquals(Integer.signum(DELEGATING.compare(one, two)), Integer.signum(NESTED.compare(one, two)));
+            assertEquals(DELEGATING.toString(one), NESTED.toString(one));
+        }
+    }
+
+    @Test
+    public void nestedFieldShouldTreatNullAsDifferentFromValueWithNullFields() throws Exception {
+        final Parent one = new Parent(1, null, null);
+        final Parent two = new Parent(1, new Child(null, null), null);
+
+        assertFalse(NESTED.isEqual(one, two));
+        assertFalse(NESTED.isEqual(two, one));
+        assertTrue(NESTED.compare(one, two) < 0);
+    }
+
+    @Test
+    public void nestedFieldShouldSupportIncomparableDefinitions() throws Exception {
+        final EqualsHashCode<Child> child = Aequum.builder(Child.class).withField(Child::getName).build();
+        final EqualsHashCode<Parent> subject = Aequum.builder(Parent.class).withNestedField(Parent::getFirst, child).build();
+
+        assertTrue(subject.isEqual(new Parent(1, new Child("a", 1), null), new Parent(2, new Child("a", 2), null)));
+        assertEquals(31 * (31 + 1) + "a".hashCode(), subject.toHashCode(new Parent(1, new Child("a", 1), null)));
+    }
+
+    @Test
+    public void nestedFieldShouldHonourExactTypeEquality() throws Exception {
+        final EqualsHashCode<Child> child = Aequum.builder(Child.class).withComparableField(Child::getName).withExactTypeEquality().build();
+        final EqualsHashCode<Parent> subject = Aequum.builder(Parent.class).withNestedField(Parent::getFirst, child).build();
+
+        assertFalse(child.isEqual(new Child("x", null), new SubChild("x")));
+        assertFalse(subject.isEqual(new Parent(1, new Child("x", null), null), new Parent(1, new SubChild("x"), null)));
+        assertTrue(subject.isEqual(new Parent(1, new SubChild("x"), null), new Parent(1, new SubChild("x"), null)));
+    }
+
+    @Test
+    public void nestedFieldsShouldBeInlinedIntoTheParentsFields() throws Exception {
+        assertEquals(Arrays.asList("id", "first", "first.name", "first.count", "second", "second.name", "second.count"), NESTED.getFieldNames());
+    }
+
+    @Test
+    public void diffShouldReportTheInlinedFieldWhichDiffers() throws Exception {
+        final Parent one = new Parent(1, new Child("a", 1), new Child("b", 2));
+
+        assertEquals(singletonList("first.count"), NESTED.getFieldNames(NESTED.diff(one, new Parent(1, new Child("a", 3), new Child("b", 2)))));
+        assertEquals(Arrays.asList("second", "second.name", "second.count"), NESTED.getFieldNames(NESTED.diff(one, new Parent(1, new Child("a", 1), null))));
+    }
+
+    @Test
+    public void projectionShouldUseTheInlinedFields() throws Exception {
+        final Parent one = new Parent(1, new Child("a", 1), null);
+
+        assertTrue(NESTED.project(2).isEqual(one, new Parent(2, new Child("a", 2), new Child("b", 2))));
+        assertFalse(NESTED.project(2).isEqual(one, new Parent(1, new Child("b", 1), null)));
+    }
+
+    @Test
+    public void columnsShouldMatchTheDefinition() throws Exception {
+        final List<Parent> parents = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            parents.add(parent());
+        }
+        final ColumnarBatch<Parent> batch = NESTED.toColumns(parents);
+
+        assertArrayEquals(parents.stream().mapToInt(NESTED::toHashCode).toArray(), batch.hashCodes());
+        assertArrayEquals(IntStream.range(0, parents.size()).boxed()
+                .sorted((a, b) -> NESTED.compare(parents.get(a), parents.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray(), batch.sorted());
+    }
+
+    @Test
+    public void nestedFieldsShouldBeInlinedAtEveryLevel() throws Exception {
+        final ComparableEqualsHashCode<Holder> subject = Aequum.builder(Holder.class).withNestedField(Holder::getParent, NESTED).build();
+        final Holder one = new Holder(new Parent(1, new Child("a", 1), null));
+
+        assertEquals("parent.first.count", subject.getFieldNames().get(4));
+        assertTrue(subject.isEqual(one, new Holder(new Parent(1, new Child("a", 1), null))));
+        assertFalse(subject.isEqual(one, new Holder(new Parent(1, new Child("a", 2), null))));
+        assertTrue(subject.compare(new Holder(null), one) < 0);
+    }
+
+    private Parent parent() {
+        return new Parent(random.nextInt(2), child(), child());
+    }
+
+    private Child child() {
+        final int choice = random.nextInt(4);
+        return choice == 0 ? null : new Child(choice == 1 ? null : "name" + random.nextInt(2), random.nextInt(3) == 0 ? null : random.nextInt(2));
+    }
+
+    private static class Parent {
+        private final Integer id;
+        private final Child first;
+        private final Child second;
+
+        Parent(final Integer id, final Child first, final Child second) {
+            this.id = id;
+            this.first = first;
+            this.second = second;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public Child getFirst() {
+            return first;
+        }
+
+        public Child getSecond() {
+            return second;
+        }
+    }
+
+    private static class Holder {
+        private final Parent parent;
+
+        Holder(final Parent parent) {
+            this.parent = parent;
+        }
+
+        public Parent getParent() {
+            return parent;
+        }
+    }
+
+    private static class Child implements Comparable<Child> {
+        private final String name;
+        private final Integer count;
+
+        Child(final String name, final Integer count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return CHILD.isEqual(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return CHILD.toHashCode(this);
+        }
+
+        @Override
+        public int compareTo(final Child o) {
+            return CHILD.compare(this, o);
+        }
+
+        @Override
+        public String toString() {
+            return CHILD.toString(this);
+        }
+    }
+
+    private static class SubChild extends Child {
+        SubChild(final String name) {
+            super(name, null);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class NullableFieldValueTest {
+
+    private static final ComparableEqualsHashCode<Dummy> NULLABLE = Aequum.builder(Dummy.class)
+            .withNullableComparableField(Dummy::getValue)
+            .build();
+
+    private static final ComparableEqualsHashCode<Dummy> OPTIONAL = Aequum.builder(Dummy.class)
+            .withOptionalComparableField(Dummy::getOptionalValue)
+            .build();
+
+    private static final List<Dummy> DUMMIES = Arrays.asList(new Dummy(null), new Dummy("a"), new Dummy("b"), new Dummy(""), new Dummy(null), new Dummy("a"));
+
+    @Test
+    public void isEqualShouldMatchOptionalField() throws Exception {
+        for (final Dummy one : DUMMIES) {
+            for (final Dummy two : DUMMIES) {
+                assertEquals(OPTIONAL.isEqual(one, two), NULLABLE.isEqual(one, two));
+            }
+        }
+    }
+
+    @Test
+    public void compareShouldMatchOptionalField() throws Exception {
+        for (final Dummy one : DUMMIES) {
+            for (final Dummy two : DUMMIES) {
+                assertEquals(Integer.signum(OPTIONAL.compare(one, two)), Integer.signum(NULLABLE.compare(one, two)));
+            }
+        }
+    }
+
+    @Test
+    public void compareShouldUseGivenComparatorForPresentValues() throws Exception {
+        final ComparableEqualsHashCode<Dummy> reversed = Aequum.builder(Dummy.class)
+                .withNullableComparableField(Dummy::getValue, Comparator.<String>reverseOrder())
+                .build();
+
+        assertEquals(1, Integer.signum(reversed.compare(new Dummy("a"), new Dummy("b"))));
+        assertEquals(-1, Integer.signum(reversed.compare(new Dummy(null), new Dummy("b"))));
+    }
+
+    @Test
+    public void hashCodesShouldMatchOptionalField() throws Exception {
+        for (final Dummy dummy : DUMMIES) {
+            assertEquals(OPTIONAL.toHashCode(dummy), NULLABLE.toHashCode(dummy));
+            assertEquals(OPTIONAL.toLongHashCode(dummy), NULLABLE.toLongHashCode(dummy));
+        }
+    }
+
+    @Test
+    public void toStringShouldShowOptional() throws Exception {
+        assertEquals("Dummy{value=Optional[a]}", NULLABLE.toString(new Dummy("a")));
+        assertEquals("Dummy{value=Optional.empty}", NULLABLE.toString(new Dummy(null)));
+    }
+
+    private static class Dummy {
+        private final String value;
+
+        Dummy(final String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public Optional<String> getOptionalValue() {
+            return Optional.ofNullable(value);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveFieldValueTest {
+
+    private static final ComparableEqualsHashCode<Dummy> PRIMITIVE = Aequum.builder(Dummy.class)
+            .withIntField(Dummy::getCount)
+            .withLongField(Dummy::getTotal)
+            .withDoubleField(Dummy::getRatio)
+            .build();
+
+    private static final ComparableEqualsHashCode<Dummy> BOXED = Aequum.builder(Dummy.class)
+            .withComparableField(Dummy::getCount)
+            .withComparableField(Dummy::getTotal)
+            .withComparableField(Dummy::getRatio)
+            .build();
+
+    private static final double[] RATIOS = {0.0, -0.0, 1.5, -1.5, Double.NaN, Double.POSITIVE_INFINITY};
+
+    private final Random random = new Random(5);
+
+    @Test
+    public void primitiveFieldsShouldGiveSameResultsAsBoxedFields() throws Exception {
+        for (int i = 0; i < 5_000; i++) {
+            final Dummy one = dummy();
+            final Dummy two = dummy();
+
+            assertEquals(BOXED.isEqual(one, two), PRIMITIVE.isEqual(one, two));
+            assertEquals(BOXED.toHashCode(one), PRIMITIVE.toHashCode(one));
+            assertEquals(Integer.signum(BOXED.compare(one, two)), Integer.signum(PRIMITIVE.compare(one, two)));
+            assertEquals(BOXED.toString(one), PRIMITIVE.toString(one));
+            assertEquals(BOXED.diff(one, two), PRIMITIVE.diff(one, two));
+            for (int f = 0; f < BOXED.getFields().length; f++) {
+                final ComparableFieldValue<Dummy> boxed = (ComparableFieldValue<Dummy>) BOXED.getFields()[f];
+                final ComparableFieldValue<Dummy> primitive = (ComparableFieldValue<Dummy>) PRIMITIVE.getFields()[f];
+                final Object value = boxed.getField().apply(two);
+                assertEquals(Integer.signum(boxed.compareToValue(one, value)), Integer.signum(primitive.compareToValue(one, value)));
+            }
+        }
+    }
+
+    @Test
+    public void doubleFieldShouldUseBoxedEquality() throws Exception {
+        assertTrue(PRIMITIVE.isEqual(new Dummy(1, 2, Double.NaN), new Dummy(1, 2, Double.NaN)));
+        assertFalse(PRIMITIVE.isEqual(new Dummy(1, 2, 0.0), new Dummy(1, 2, -0.0)));
+    }
+
+    @Test
+    public void primitiveFieldsShouldBeNamedFromTheGetter() throws Exception {
+        assertEquals(BOXED.getFieldNames(), PRIMITIVE.getFieldNames());
+    }
+
+    @Test
+    public void incomparableBuilderShouldSupportPrimitiveFields() throws Exception {
+        final EqualsHashCode<Dummy> subject = Aequum.builder(Dummy.class)
+                .withField(Dummy::getName)
+                .withIntField(Dummy::getCount)
+                .withLongField(Dummy::getTotal)
+                .withDoubleField(Dummy::getRatio)
+                .build();
+        final EqualsHashCode<Dummy> expected = Aequum.builder(Dummy.class)
+                .withField(Dummy::getName)
+                .withField(Dummy::getCount)
+                .withField(Dummy::getTotal)
+                .withField(Dummy::getRatio)
+                .build();
+
+        final Dummy dummy = new Dummy(Integer.MIN_VALUE, Long.MAX_VALUE, -3.25);
+        assertEquals(expected.toHashCode(dummy), subject.toHashCode(dummy));
+        assertTrue(subject.isEqual(dummy, new Dummy(Integer.MIN_VALUE, Long.MAX_VALUE, -3.25)));
+    }
+
+    private Dummy dummy() {
+        return new Dummy(random.nextInt(3) - 1, random.nextInt(3) * (random.nextBoolean() ? Long.MIN_VALUE / 4 : 1), RATIOS[random.nextInt(RATIOS.length)]);
+    }
+
+    private static class Dummy {
+        private final int count;
+        private final long total;
+        private final double ratio;
+
+        Dummy(final int count, final long total, final double ratio) {
+            this.count = count;
+            this.total = total;
+            this.ratio = ratio;
+        }
+
+        public String getName() {
+            return "dummy";
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+    }
+}
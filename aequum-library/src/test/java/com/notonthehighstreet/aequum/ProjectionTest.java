@@ -0,0 +1,234 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectionTest {
+
+    private static final ComparableEqualsHashCode<Sale> SALE = Aequum.builder(Sale.class)
+            .withComparableField(Sale::getRegion)
+            .withComparableField(Sale::getDay)
+            .withComparableField(Sale::getAmount)
+            .build();
+
+    private static final EqualsHashCode<Target> TARGET = Aequum.builder(Target.class)
+            .withField(Target::getDay)
+            .withField(Target::getRegion)
+            .build();
+
+    private final Random random = new Random(3);
+
+    @Test
+    public void projectionShouldOnlyUseTheProjectedFields() throws Exception {
+        final ComparableProjection<Sale> subject = SALE.project(1, 0);
+
+        assertTrue(subject.isEqual(new Sale("north", 1, 10), new Sale("north", 1, 20)));
+        assertFalse(subject.isEqual(new Sale("north", 1, 10), new Sale("south", 1, 10)));
+        assertTrue(subject.compare(new Sale("south", 1, 10), new Sale("north", 2, 10)) < 0);
+        assertTrue(subject.compare(new Sale("north", 1, 10), new Sale("south", 1, 10)) < 0);
+        assertEquals(0, subject.compare(new Sale("north", 1, 10), new Sale("north", 1, 20)));
+    }
+
+    @Test
+    public void projectionShouldHaveSameHashCodeAsDefinitionWithOnlyThoseFields() throws Exception {
+        final ComparableEqualsHashCode<Sale> expected = Aequum.builder(Sale.class)
+                .withComparableField(Sale::getDay)
+                .withComparableField(Sale::getRegion)
+                .build();
+        final Projection<Sale> subject = SALE.project(1, 0);
+
+        for (int i = 0; i < 1_000; i++) {
+            final Sale sale = sale();
+            assertEquals(expected.toHashCode(sale), subject.toHashCode(sale));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void projectShouldRejectOutOfRangeIndex() throws Exception {
+        SALE.project(0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void projectShouldRejectNoIndexes() throws Exception {
+        SALE.project();
+    }
+
+    @Test
+    public void groupByShouldGiveSameGroupsAsMapKeyedOnTheFields() throws Exception {
+        final List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            sales.add(sale());
+        }
+
+        final Map<List<Object>, List<Sale>> expected = new LinkedHashMap<>();
+        for (final Sale sale : sales) {
+            expected.computeIfAbsent(Arrays.asList(sale.getRegion(), sale.getDay()), k -> new ArrayList<>()).add(sale);
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), SALE.project(0, 1).groupBy(sales));
+    }
+
+    @Test
+    public void groupByShouldReturnNoGroupsForNoRows() throws Exception {
+        assertThat(SALE.project(0).groupBy(new ArrayList<>()), empty());
+    }
+
+    @Test
+    public void hashJoinShouldMatchRowsOfDifferentTypesOnTheFieldValues() throws Exception {
+        final List<Sale> sales = Arrays.asList(new Sale("north", 1, 10), new Sale("south", 1, 20), new Sale("north", 1, 30), new Sale(null, 2, 40));
+        final List<Target> targets = Arrays.asList(new Target(1, "north"), new Target(2, "south"), new Target(2, null), new Target(1, "south"));
+
+        final List<String> matches = new ArrayList<>();
+        SALE.project(0, 1).hashJoin(sales, TARGET.project(1, 0), targets, (s, t) -> matches.add(s.getAmount() + "-" + t.getDay() + t.getRegion()));
+
+        assertThat(matches, contains("10-1north", "30-1north", "40-2null", "20-1south"));
+    }
+
+    @Test
+    public void hashJoinShouldMatchEveryPairOfEqualRows() throws Exception {
+        final List<Sale> build = new ArrayList<>();
+        final List<Target> probe = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            final Sale sale = sale();
+            build.add(sale);
+            probe.add(new Target(sale.getDay(), sale.getRegion()));
+        }
+
+        final int[] count = new int[1];
+        SALE.project(1, 0).hashJoin(build, TARGET.project(0, 1), probe, (s, t) -> {
+            assertEquals(s.getDay(), t.getDay());
+            assertEquals(s.getRegion(), t.getRegion());
+            count[0]++;
+        });
+
+        int expected = 0;
+        for (final List<Sale> group : SALE.project(0, 1).groupBy(build)) {
+            expected += group.size() * group.size();
+        }
+        assertEquals(expected, count[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hashJoinShouldRejectProjectionsOfDifferentSizes() throws Exception {
+        SALE.project(0, 1).hashJoin(singletonList(new Sale("north", 1, 10)), TARGET.project(0), singletonList(new Target(1, "north")), (s, t) -> { });
+    }
+
+    @Test
+    public void hashJoinShouldCompareFieldsOfTheSameKindThroughTheField() throws Exception {
+        final EqualsHashCode<Sale> sale = Aequum.builder(Sale.class)
+                .withIntField(Sale::getDay)
+                .withNullableComparableField(Sale::getRegion)
+                .build();
+        final EqualsHashCode<Target> target = Aequum.builder(Target.class)
+                .withIntField(Target::getDay)
+                .withNullableComparableField(Target::getRegion)
+                .build();
+        final List<Sale> sales = Arrays.asList(new Sale("north", 1, 10), new Sale(null, 2, 20), new Sale("north", 2, 30));
+        final List<Target> targets = Arrays.asList(new Target(2, null), new Target(1, "north"), new Target(1, "south"));
+
+        final List<String> matches = new ArrayList<>();
+        sale.project(0, 1).hashJoin(sales, target.project(0, 1), targets, (s, t) -> matches.add(s.getAmount() + "-" + t.getDay() + t.getRegion()));
+
+        assertThat(matches, contains("20-2null", "10-1north"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hashJoinShouldRejectPrimitiveAndBoxedFields() throws Exception {
+        final EqualsHashCode<Sale> sale = Aequum.builder(Sale.class).withIntField(Sale::getDay).build();
+
+        sale.project(0).hashJoin(singletonList(new Sale("north", 1, 10)), TARGET.project(0), singletonList(new Target(1, "north")), (s, t) -> { });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hashJoinShouldRejectNullableAndPlainFields() throws Exception {
+        final EqualsHashCode<Sale> sale = Aequum.builder(Sale.class).withNullableComparableField(Sale::getRegion).build();
+
+        sale.project(0).hashJoin(singletonList(new Sale("north", 1, 10)), TARGET.project(1), singletonList(new Target(1, "north")), (s, t) -> { });
+    }
+
+    private Sale sale() {
+        return new Sale(random.nextInt(5) == 0 ? null : "region" + random.nextInt(20), random.nextInt(50), random.nextInt(1_000));
+    }
+
+    private static class Sale {
+        private final String region;
+        private final Integer day;
+        private final Integer amount;
+
+        Sale(final String region, final Integer day, final Integer amount) {
+            this.region = region;
+            this.day = day;
+            this.amount = amount;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public Integer getDay() {
+            return day;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+    }
+
+    private static class Target {
+        private final Integer day;
+        private final String region;
+
+        Target(final Integer day, final String region) {
+            this.day = day;
+            this.region = region;
+        }
+
+        public Integer getDay() {
+            return day;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+    }
+}
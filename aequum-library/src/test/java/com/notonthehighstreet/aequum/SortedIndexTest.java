@@ -0,0 +1,183 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class SortedIndexTest {
+
+    private static final ComparableEqualsHashCode<Row> ROW = Aequum.builder(Row.class)
+            .withComparableField(Row::getRegion)
+            .withIntField(Row::getDay)
+            .withComparableField(Row::getProduct)
+            .build();
+
+    private final Random random = new Random(17);
+    private final List<Row> rows = new ArrayList<>();
+
+    @Test
+    public void prefixShouldFindSameRowsAsFilteringInOrder() throws Exception {
+        final SortedIndex<Row> subject = SortedIndex.build(ROW, rows(5_000));
+
+        for (final String region : Arrays.asList(null, "east", "north", "west", "missing")) {
+            assertEquals(expected(r -> Objects.equals(r.getRegion(), region)), subject.prefix(region));
+            for (int day = -1; day < 32; day++) {
+                final int d = day;
+                assertEquals(expected(r -> Objects.equals(r.getRegion(), region) && r.getDay() == d), subject.prefix(region, day));
+            }
+        }
+        assertEquals(expected(r -> true), subject.prefix());
+    }
+
+    @Test
+    public void rangeShouldFindSameRowsAsFilteringInOrder() throws Exception {
+        final SortedIndex<Row> subject = SortedIndex.build(ROW, rows(5_000));
+
+        for (int i = 0; i < 200; i++) {
+            final String region = region();
+            final int from = random.nextInt(34) - 1;
+            final int to = random.nextInt(34) - 1;
+            final boolean fromInclusive = random.nextBoolean();
+            final boolean toInclusive = random.nextBoolean();
+
+            assertEquals(expected(r -> Objects.equals(r.getRegion(), region)
+                            && (fromInclusive ? r.getDay() >= from : r.getDay() > from)
+                            && (toInclusive ? r.getDay() <= to : r.getDay() < to)),
+                    subject.range(Collections.singletonList(region), from, fromInclusive, to, toInclusive));
+        }
+    }
+
+    @Test
+    public void rangeShouldCompareNullBoundsWithTheFieldComparator() throws Exception {
+        final SortedIndex<Row> subject = SortedIndex.build(ROW, rows(1_000));
+
+        assertEquals(expected(r -> r.getRegion() == null || r.getRegion().compareTo("north") <= 0),
+                subject.range(Collections.emptyList(), null, true, "north", true));
+        assertEquals(expected(r -> "east".equals(r.getRegion()) && r.getDay() == 3 && r.getProduct() != null && r.getProduct().compareTo("p5") < 0),
+                subject.range(Arrays.asList("east", 3), null, false, "p5", false));
+    }
+
+    @Test
+    public void getShouldFindRowComparingAsEqual() throws Exception {
+        final SortedIndex<Row> subject = SortedIndex.build(ROW, rows(2_000));
+
+        for (final Row row : rows) {
+            final Optional<Row> found = subject.get(new Row(row.getRegion(), row.getDay(), row.getProduct()));
+            assertEquals(0, ROW.compare(row, found.get()));
+            assertEquals(expected(r -> ROW.compare(r, row) == 0), subject.getAll(row));
+        }
+        assertFalse(subject.get(new Row("missing", 0, null)).isPresent());
+    }
+
+    @Test
+    public void buildShouldKeepTheOrderOfEqualRows() throws Exception {
+        final Row first = new Row("north", 1, "p1");
+        final Row second = new Row("north", 1, "p1");
+        final SortedIndex<Row> subject = SortedIndex.build(ROW, Arrays.asList(new Row("west", 1, "p1"), first, new Row("east", 1, "p1"), second));
+
+        assertSame(first, subject.getAll(first).get(0));
+        assertSame(second, subject.getAll(first).get(1));
+        assertThat(subject.asList().stream().map(Row::getRegion).collect(toList()), contains("east", "north", "north", "west"));
+    }
+
+    @Test
+    public void queriesShouldReturnNothingForEmptyIndex() throws Exception {
+        final SortedIndex<Row> subject = SortedIndex.build(ROW, new ArrayList<>());
+
+        assertThat(subject.prefix("north"), empty());
+        assertThat(subject.range(Collections.emptyList(), "a", true, "z", true), empty());
+        assertFalse(subject.get(new Row("north", 1, "p1")).isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefixShouldRejectMoreValuesThanFields() throws Exception {
+        SortedIndex.build(ROW, rows(10)).prefix("north", 1, "p1", "extra");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangeShouldRejectPrefixCoveringEveryField() throws Exception {
+        SortedIndex.build(ROW, rows(10)).range(Arrays.asList("north", 1, "p1"), "a", true, "z", true);
+    }
+
+    private List<Row> rows(final int count) {
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(region(), random.nextInt(31), random.nextInt(10) == 0 ? null : "p" + random.nextInt(10)));
+        }
+        return rows;
+    }
+
+    private String region() {
+        return Arrays.asList(null, "east", "north", "west").get(random.nextInt(4));
+    }
+
+    private List<Row> expected(final Predicate<Row> predicate) {
+        final List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(ROW::compare);
+        return sorted.stream().filter(predicate).collect(toList());
+    }
+
+    private static class Row {
+        private final String region;
+        private final int day;
+        private final String product;
+
+        Row(final String region, final int day, final String product) {
+            this.region = region;
+            this.day = day;
+            this.product = product;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public int getDay() {
+            return day;
+        }
+
+        public String getProduct() {
+            return product;
+        }
+    }
+}
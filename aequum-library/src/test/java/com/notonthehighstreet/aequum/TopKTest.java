@@ -0,0 +1,136 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class TopKTest {
+
+    private static final ComparableEqualsHashCode<Offer> OFFER = Aequum.builder(Offer.class)
+            .withIntField(Offer::getPrice)
+            .withComparableField(Offer::getSeller)
+            .build();
+
+    private final Random random = new Random(19);
+
+    @Test
+    public void topKShouldGiveSameResultAsStableSortAndLimit() throws Exception {
+        for (final int k : new int[] {0, 1, 7, 100, 5_000, 20_000}) {
+            final List<Offer> offers = offers(10_000);
+            final List<Offer> expected = offers.stream().sorted(OFFER::compare).limit(k).collect(toList());
+
+            assertIdentical(expected, OFFER.topK(offers, k));
+            assertIdentical(expected, OFFER.topK(offers.stream(), k));
+            assertIdentical(expected, offers.stream().collect(OFFER.toTopK(k)));
+        }
+    }
+
+    @Test
+    public void parallelTopKShouldGiveSameResultAsStableSortAndLimit() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            final List<Offer> offers = offers(50_000);
+            final List<Offer> expected = offers.stream().sorted(OFFER::compare).limit(250).collect(toList());
+
+            assertIdentical(expected, OFFER.topK(offers.parallelStream(), 250));
+        }
+    }
+
+    @Test
+    public void topKShouldRejectMostCandidatesOnTheLeadingField() throws Exception {
+        final AtomicInteger comparisons = new AtomicInteger();
+        final ComparableEqualsHashCode<Offer> definition = Aequum.builder(Offer.class)
+                .withIntField(Offer::getPrice)
+                .withComparableField(Offer::getSeller, Comparator.<String>naturalOrder().thenComparing(s -> comparisons.incrementAndGet()))
+                .build();
+
+        final List<Offer> offers = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            offers.add(new Offer(random.nextInt(1_000_000), "seller" + random.nextInt(10), i));
+        }
+        definition.topK(offers, 10);
+
+        assertThat(comparisons.get(), lessThan(1_000));
+    }
+
+    @Test
+    public void topKShouldReturnNothingForNoCandidates() throws Exception {
+        assertThat(OFFER.topK(new ArrayList<>(), 10), empty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void topKShouldRejectNegativeK() throws Exception {
+        OFFER.toTopK(-1);
+    }
+
+    private List<Offer> offers(final int count) {
+        final List<Offer> offers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            offers.add(new Offer(random.nextInt(100), random.nextInt(5) == 0 ? null : "seller" + random.nextInt(3), i));
+        }
+        return offers;
+    }
+
+    private static void assertIdentical(final List<Offer> expected, final List<Offer> actual) {
+        assertEquals(expected.stream().map(Offer::getSequence).collect(toList()), actual.stream().map(Offer::getSequence).collect(toList()));
+    }
+
+    private static class Offer {
+        private final int price;
+        private final String seller;
+        private final int sequence;
+
+        Offer(final int price, final String seller, final int sequence) {
+            this.price = price;
+            this.seller = seller;
+            this.sequence = sequence;
+        }
+
+        public int getPrice() {
+            return price;
+        }
+
+        public String getSeller() {
+            return seller;
+        }
+
+        public int getSequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Run by failsafe against the multi-release JAR, so that the Java 17 {@linkplain Platform} is the one under test.
+ */
+public class PlatformIT {
+
+    private static final int THREADS = 8;
+    private static final int LONGS = 64;
+
+    @Test
+    public void platformShouldBeJava17Version() throws Exception {
+        assertNotNull(Platform.class.getDeclaredField("BUFFER_LONGS"));
+    }
+
+    @Test
+    public void getAndBitwiseOrShouldSetEveryBitExactlyOnceAcrossThreads() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(LONGS * Long.BYTES);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Integer>> newlySet = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                newlySet.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    // Every thread sets every bit, interleaved, so each bit is contended
+                    for (int bit = 0; bit < Long.SIZE; bit++) {
+                        for (int i = 0; i < LONGS; i++) {
+                            final long mask = 1L << ((bit + thread) % Long.SIZE);
+                            final long previous = Platform.getAndBitwiseOr(buffer, i * Long.BYTES, mask);
+                            count += (previous & mask) == 0 ? 1 : 0;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (final Future<Integer> future : newlySet) {
+                total += future.get();
+            }
+            assertEquals(LONGS * Long.SIZE, total);
+            for (int i = 0; i < LONGS; i++) {
+                assertEquals(-1L, buffer.getLong(i * Long.BYTES));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.notonthehighstreet.aequum;
+
+/*
+ * #%L
+ * Aequum Library
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Run by failsafe against the multi-release JAR, as records are only supported by the Java 17 {@linkplain Platform}.
+ */
+public class RecordIT {
+
+    private static final ComparableEqualsHashCode<Point> POINT = Aequum.forComparableRecord(Point.class);
+
+    private static final ComparableEqualsHashCode<Point> EQUIVALENT = Aequum.builder(Point.class)
+            .withIntField(Point::x)
+            .withLongField(Point::y)
+            .withDoubleField(Point::z)
+            .withComparableField(Point::initial)
+            .withComparableField(Point::label)
+            .withComparableField(Point::weight)
+            .withComparableField(Point::visible)
+            .build();
+
+    private final Random random = new Random(28);
+
+    @Test
+    public void forComparableRecordShouldUseEveryComponentInOrder() throws Exception {
+        assertEquals(List.of("x", "y", "z", "initial", "label", "weight", "visible"), POINT.getFieldNames());
+    }
+
+    @Test
+    public void forComparableRecordShouldMatchEquivalentBuilder() throws Exception {
+        final List<Point> points = points(200);
+        for (final Point one : points) {
+            assertEquals(EQUIVALENT.toHashCode(one), POINT.toHashCode(one));
+            assertEquals(EQUIVALENT.toLongHashCode(one), POINT.toLongHashCode(one));
+            assertEquals(EQUIVALENT.toString(one), POINT.toString(one));
+            for (final Point two : points) {
+                assertEquals(EQUIVALENT.isEqual(one, two), POINT.isEqual(one, two));
+                assertEquals(Integer.signum(EQUIVALENT.compare(one, two)), Integer.signum(POINT.compare(one, two)));
+            }
+        }
+        assertArrayEquals(EQUIVALENT.toColumns(points).hashCodes(), POINT.toColumns(points).hashCodes());
+        assertArrayEquals(EQUIVALENT.toColumns(points).sorted(), POINT.toColumns(points).sorted());
+    }
+
+    @Test
+    public void forRecordShouldMatchRecordEquals() throws Exception {
+        final EqualsHashCode<Point> definition = Aequum.forRecord(Point.class);
+        final List<Point> points = points(200);
+        for (final Point one : points) {
+            for (final Point two : points) {
+                assertEquals(one.equals(two), definition.isEqual(one, two));
+            }
+        }
+        assertFalse(definition.isEqual(points.get(0), "not a point"));
+    }
+
+    @Test
+    public void toStringShouldShowComponentValues() throws Exception {
+        assertEquals("Point{initial=a, label=null, visible=true, weight=1.5, x=1, y=2, z=3.0}",
+                POINT.toString(new Point(1, 2, 3, 'a', null, 1.5f, true)));
+    }
+
+    @Test
+    public void primitiveComponentsShouldNotBeBoxed() throws Exception {
+        final FieldValue<Point>[] fields = POINT.getFields();
+
+        assertThat(fields[0], instanceOf(IntFieldValue.class));
+        assertThat(fields[1], instanceOf(LongFieldValue.class));
+        assertThat(fields[2], instanceOf(DoubleFieldValue.class));
+        assertThat(fields[3], instanceOf(IntFieldValue.class));
+        assertThat(fields[5], instanceOf(FloatFieldValue.class));
+    }
+
+    @Test
+    public void nullComponentsShouldSortFirst() throws Exception {
+        assertTrue(POINT.compare(new Point(1, 2, 3, 'a', null, 1, true), new Point(1, 2, 3, 'a', "", 1, true)) < 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void forRecordShouldRejectClassesWhichAreNotRecords() throws Exception {
+        Aequum.forRecord(String.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void forComparableRecordShouldRejectIncomparableComponents() throws Exception {
+        Aequum.forComparableRecord(Holder.class);
+    }
+
+    private List<Point> points(final int count) {
+        final String[] labels = {null, "a", "b"};
+        final List<Point> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new Point(random.nextInt(2), random.nextInt(2), random.nextBoolean() ? 0.0 : -0.0, random.nextBoolean() ? 'a' : 'b',
+                    labels[random.nextInt(labels.length)], random.nextBoolean() ? 0.0f : random.nextBoolean() ? -0.0f : Float.NaN, random.nextBoolean()));
+        }
+        return points;
+    }
+
+    private record Point(int x, long y, double z, char initial, String label, float weight, boolean visible) {
+    }
+
+    private record Holder(Object value) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.notonthehighstreet.aequum.processor;
+
+/*
+ * #%L
+ * Aequum Processor
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Annotation processor which generates the code for types annotated with {@linkplain GenerateAequum}.
+ * @see GenerateAequum
+ */
+@SupportedAnnotationTypes("com.notonthehighstreet.aequum.processor.GenerateAequum")
+public class AequumProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(GenerateAequum.class)) {
+            try {
+                generate(element);
+            } catch (InvalidDefinitionException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.getElement());
+            }
+        }
+        return true;
+    }
+
+    private void generate(final Element element) {
+        if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.ENUM) {
+            throw new InvalidDefinitionException("@GenerateAequum can only be used on classes", element);
+        }
+
+        final TypeElement type = (TypeElement) element;
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new InvalidDefinitionException("@GenerateAequum can't be used on generic types", type);
+        }
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new InvalidDefinitionException("@GenerateAequum can't be used on private types", type);
+            }
+        }
+
+        final GenerateAequum annotation = type.getAnnotation(GenerateAequum.class);
+        final Set<String> seen = new HashSet<>();
+        final List<GeneratedField> fields = new ArrayList<>();
+        final List<GeneratedField> toStringFields = new ArrayList<>();
+        for (final String name : annotation.fields()) {
+            fields.add(resolve(type, name, seen, annotation.comparable()));
+        }
+        for (final String name : annotation.toStringFields()) {
+            toStringFields.add(resolve(type, name, seen, false));
+        }
+
+        write(type, new GeneratedSource(packageOf(type).getQualifiedName().toString(), generatedName(type), type.getQualifiedName().toString(),
+                fields, toStringFields, annotation.comparable()));
+    }
+
+    private GeneratedField resolve(final TypeElement type, final String name, final Set<String> seen, final boolean comparable) {
+        if (!seen.add(name)) {
+            throw new InvalidDefinitionException("Field '" + name + "' is listed more than once", type);
+        }
+
+        final Elements elements = processingEnv.getElementUtils();
+        final Types types = processingEnv.getTypeUtils();
+        final DeclaredType declaredType = (DeclaredType) type.asType();
+        final PackageElement pkg = packageOf(type);
+        final String capitalised = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        GeneratedField field = null;
+        for (final Element member : elements.getAllMembers(type)) {
+            if (member.getKind() == ElementKind.METHOD && isAccessible(member, pkg)
+                    && (member.getSimpleName().contentEquals("get" + capitalised) || member.getSimpleName().contentEquals("is" + capitalised))
+                    && ((ExecutableElement) member).getParameters().isEmpty()) {
+                final TypeMirror returnType = ((ExecutableType) types.asMemberOf(declaredType, member)).getReturnType();
+                if (returnType.getKind() != TypeKind.VOID) {
+                    field = new GeneratedField(name, member.getSimpleName() + "()", returnType, kindOf(returnType));
+                    break;
+                }
+            }
+        }
+        if (field == null) {
+            for (final Element member : elements.getAllMembers(type)) {
+                if (member.getKind() == ElementKind.FIELD && isAccessible(member, pkg) && member.getSimpleName().contentEquals(name)) {
+                    final TypeMirror fieldType = types.asMemberOf(declaredType, member);
+                    field = new GeneratedField(name, name, fieldType, kindOf(fieldType));
+                    break;
+                }
+            }
+        }
+        if (field == null) {
+            throw new InvalidDefinitionException("No accessible getter or field found for '" + name + "'", type);
+        }
+        if (comparable && !isComparable(field)) {
+            throw new InvalidDefinitionException("Field '" + name + "' of type " + field.getType() + " is not comparable", type);
+        }
+        return field;
+    }
+
+    private boolean isAccessible(final Element member, final PackageElement pkg) {
+        if (member.getModifiers().contains(Modifier.STATIC) || member.getModifiers().contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return member.getModifiers().contains(Modifier.PUBLIC) || packageOf(member).equals(pkg);
+    }
+
+    private FieldKind kindOf(final TypeMirror type) {
+        final Types types = processingEnv.getTypeUtils();
+        if (type.getKind().isPrimitive()) {
+            return FieldKind.PRIMITIVE;
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            final TypeMirror component = ((ArrayType) type).getComponentType();
+            return component.getKind().isPrimitive() ? FieldKind.PRIMITIVE_ARRAY : FieldKind.OBJECT_ARRAY;
+        }
+        if (types.isSameType(types.erasure(type), erasureOf(Optional.class))) {
+            return FieldKind.OPTIONAL;
+        }
+        if (types.isSameType(type, erasureOf(Object.class)) || types.isSameType(type, erasureOf(Cloneable.class))
+                || types.isSameType(type, erasureOf(Serializable.class))) {
+            // An array could be hiding behind these types, so its contents have to be checked at runtime
+            return FieldKind.POSSIBLY_ARRAY;
+        }
+        return FieldKind.OBJECT;
+    }
+
+    private boolean isComparable(final GeneratedField field) {
+        final Types types = processingEnv.getTypeUtils();
+        switch (field.getKind()) {
+            case PRIMITIVE:
+                return true;
+            case OPTIONAL:
+                final List<? extends TypeMirror> arguments = ((DeclaredType) field.getType()).getTypeArguments();
+                return !arguments.isEmpty() && types.isAssignable(types.erasure(arguments.get(0)), erasureOf(Comparable.class));
+            case OBJECT:
+                return types.isAssignable(types.erasure(field.getType()), erasureOf(Comparable.class));
+            default:
+                return false;
+        }
+    }
+
+    private TypeMirror erasureOf(final Class<?> type) {
+        return processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement(type.getCanonicalName()).asType());
+    }
+
+    private void write(final TypeElement type, final GeneratedSource source) {
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(source.getQualifiedName(), type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.render());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String generatedName(final TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append("Aequum").toString();
+    }
+
+    private static PackageElement packageOf(final Element element) {
+        Element e = element;
+        while (e.getKind() != ElementKind.PACKAGE) {
+            e = e.getEnclosingElement();
+        }
+        return (PackageElement) e;
+    }
+}
@@ -0,0 +1,10 @@
+package com.notonthehighstreet.aequum.processor;
+
+enum FieldKind {
+    PRIMITIVE,
+    PRIMITIVE_ARRAY,
+    OBJECT_ARRAY,
+    OPTIONAL,
+    POSSIBLY_ARRAY,
+    OBJECT
+}
@@ -0,0 +1,97 @@
+package com.notonthehighstreet.aequum.processor;
+
+/*
+ * #%L
+ * Aequum Processor
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Generates a class called {@code <TypeName>Aequum} in the same package as the annotated type, containing static {@code isEqual}, {@code toHashCode},
+ *     {@code toString} and optionally {@code compare} methods. The generated methods have exactly the same semantics as an
+ *     {@code EqualsHashCode} or {@code ComparableEqualsHashCode} built with the same fields, but are plain Java with no runtime dependencies.
+ * </p>
+ * <p>
+ *     Each named field is read through a non-private getter ({@code getName()} or {@code isName()}) if there is one, otherwise through the non-private
+ *     field itself.
+ * </p>
+ * <p>
+ *     Example:
+ * </p>
+ * <pre>
+ * &#64;GenerateAequum(fields = {"fieldOne", "fieldTwo"}, comparable = true)
+ * public class Pojo implements Comparable&lt;Pojo&gt; {
+ *
+ *   ...
+ *
+ *   &#64;Override
+ *   public boolean equals(final Object o) {
+ *     return PojoAequum.isEqual(this, o);
+ *   }
+ *
+ *   &#64;Override
+ *   public int hashCode() {
+ *     return PojoAequum.toHashCode(this);
+ *   }
+ *
+ *   &#64;Override
+ *   public int compareTo(final Pojo o) {
+ *     return PojoAequum.compare(this, o);
+ *   }
+ *
+ *   &#64;Override
+ *   public String toString() {
+ *     return PojoAequum.toString(this);
+ *   }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateAequum {
+
+    /**
+     * Fields used for equality, hash code, comparison (in the given order) and {@linkplain Object#toString()} toString}.
+     * @return Names of the fields.
+     */
+    String[] fields();
+
+    /**
+     * Fields only used in {@linkplain Object#toString()} toString}.
+     * @return Names of the fields.
+     */
+    String[] toStringFields() default {};
+
+    /**
+     * Whether to generate a {@code compare} method, in which case every field must be a primitive, {@linkplain Comparable} or an
+     * {@linkplain java.util.Optional} of a {@linkplain Comparable}. {@code null} values are sorted first, as are empty {@linkplain java.util.Optional}s.
+     * @return True if a {@code compare} method should be generated.
+     */
+    boolean comparable() default false;
+}
@@ -0,0 +1,33 @@
+package com.notonthehighstreet.aequum.processor;
+
+import javax.lang.model.type.TypeMirror;
+
+class GeneratedField {
+    private final String name;
+    private final String accessor;
+    private final TypeMirror type;
+    private final FieldKind kind;
+
+    GeneratedField(final String name, final String accessor, final TypeMirror type, final FieldKind kind) {
+        this.name = name;
+        this.accessor = accessor;
+        this.type = type;
+        this.kind = kind;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getAccessor() {
+        return accessor;
+    }
+
+    TypeMirror getType() {
+        return type;
+    }
+
+    FieldKind getKind() {
+        return kind;
+    }
+}
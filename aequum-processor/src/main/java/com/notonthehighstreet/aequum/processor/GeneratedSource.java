@@ -0,0 +1,217 @@
+package com.notonthehighstreet.aequum.processor;
+
+import javax.lang.model.type.TypeKind;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Renders the source of the generated class. Each expression mirrors what the library does at runtime, e.g. {@code Objects.deepEquals} for
+ * equality, {@code Arrays.deepHashCode} for the hash code and {@code Comparator.nullsFirst} for ordering.
+ */
+class GeneratedSource {
+
+    private final String packageName;
+    private final String simpleName;
+    private final String targetType;
+    private final List<GeneratedField> fields;
+    private final List<GeneratedField> toStringFields;
+    private final boolean comparable;
+
+    GeneratedSource(final String packageName, final String simpleName, final String targetType, final List<GeneratedField> fields,
+                    final List<GeneratedField> toStringFields, final boolean comparable) {
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.targetType = targetType;
+        this.fields = fields;
+        this.toStringFields = toStringFields;
+        this.comparable = comparable;
+    }
+
+    String getQualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    String render() {
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("// Generated by ").append(AequumProcessor.class.getName()).append(" from ").append(targetType).append("\n");
+        source.append("final class ").append(simpleName).append(" {\n\n");
+        source.append("    private ").append(simpleName).append("() {\n    }\n\n");
+
+        renderIsEqual(source);
+        renderToHashCode(source);
+        if (comparable) {
+            renderCompare(source);
+        }
+        renderToString(source);
+        renderHelpers(source);
+
+        return source.append("}\n").toString();
+    }
+
+    private void renderIsEqual(final StringBuilder source) {
+        source.append("    static boolean isEqual(final ").append(targetType).append(" thisObject, final Object thatObject) {\n");
+        source.append("        if (thisObject == thatObject) {\n            return true;\n        }\n");
+        source.append("        if (!(thatObject instanceof ").append(targetType).append(")) {\n            return false;\n        }\n");
+        source.append("        final ").append(targetType).append(" that = (").append(targetType).append(") thatObject;\n");
+        source.append("        return true");
+        for (final GeneratedField field : fields) {
+            source.append("\n                && ").append(equality(field, "thisObject." + field.getAccessor(), "that." + field.getAccessor()));
+        }
+        source.append(";\n    }\n\n");
+    }
+
+    private void renderToHashCode(final StringBuilder source) {
+        source.append("    static int toHashCode(final ").append(targetType).append(" thisObject) {\n");
+        source.append("        int result = 1;\n");
+        for (final GeneratedField field : fields) {
+            source.append("        result = 31 * result + ").append(hashCode(field, "thisObject." + field.getAccessor())).append(";\n");
+        }
+        source.append("        return result;\n    }\n\n");
+    }
+
+    private void renderCompare(final StringBuilder source) {
+        source.append("    static int compare(final ").append(targetType).append(" thisObject, final ").append(targetType).append(" thatObject) {\n");
+        source.append("        int result = 0;\n");
+        for (final GeneratedField field : fields) {
+            source.append("        if (result == 0) {\n            result = ")
+                    .append(comparison(field, "thisObject." + field.getAccessor(), "thatObject." + field.getAccessor()))
+                    .append(";\n        }\n");
+        }
+        source.append("        return result;\n    }\n\n");
+    }
+
+    private void renderToString(final StringBuilder source) {
+        // Same ordering as the library, which sorts the fields by name
+        final List<GeneratedField> all = new ArrayList<>(fields);
+        all.addAll(toStringFields);
+        all.sort(Comparator.comparing(GeneratedField::getName));
+
+        source.append("    static String toString(final ").append(targetType).append(" thisObject) {\n");
+        source.append("        return thisObject.getClass().getSimpleName() + \"{\"");
+        String separator = "";
+        for (final GeneratedField field : all) {
+            source.append("\n                + \"").append(separator).append(field.getName()).append("=\" + ")
+                    .append(toString(field, "thisObject." + field.getAccessor()));
+            separator = ", ";
+        }
+        source.append("\n                + \"}\";\n    }\n");
+    }
+
+    private void renderHelpers(final StringBuilder source) {
+        if (uses(fields, FieldKind.POSSIBLY_ARRAY)) {
+            source.append("\n    private static int deepHashCode(final Object value) {\n");
+            source.append("        if (value instanceof Object[]) {\n            return java.util.Arrays.deepHashCode((Object[]) value);\n        }\n");
+            for (final String primitive : new String[] {"byte", "short", "int", "long", "char", "float", "double", "boolean"}) {
+                source.append("        if (value instanceof ").append(primitive).append("[]) {\n            return java.util.Arrays.hashCode((")
+                        .append(primitive).append("[]) value);\n        }\n");
+            }
+            source.append("        return java.util.Objects.hashCode(value);\n    }\n");
+        }
+        final List<GeneratedField> all = new ArrayList<>(fields);
+        all.addAll(toStringFields);
+        if (uses(all, FieldKind.POSSIBLY_ARRAY)) {
+            source.append("\n    private static String arraySafeToString(final Object value) {\n");
+            source.append("        return value instanceof Object[] ? java.util.Arrays.toString((Object[]) value) : String.valueOf(value);\n    }\n");
+        }
+        if (comparable && uses(fields, FieldKind.OBJECT)) {
+            source.append("\n    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            source.append("    private static int compareNullsFirst(final Comparable thisValue, final Comparable thatValue) {\n");
+            source.append("        if (thisValue == null) {\n            return thatValue == null ? 0 : -1;\n        }\n");
+            source.append("        if (thatValue == null) {\n            return 1;\n        }\n");
+            source.append("        return thisValue.compareTo(thatValue);\n    }\n");
+        }
+        if (comparable && uses(fields, FieldKind.OPTIONAL)) {
+            source.append("\n    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            source.append("    private static int compareOptional(final java.util.Optional<? extends Comparable> thisValue, ")
+                    .append("final java.util.Optional<? extends Comparable> thatValue) {\n");
+            source.append("        if (!thisValue.isPresent()) {\n            return !thatValue.isPresent() ? 0 : -1;\n        }\n");
+            source.append("        if (!thatValue.isPresent()) {\n            return 1;\n        }\n");
+            source.append("        return thisValue.get().compareTo(thatValue.get());\n    }\n");
+        }
+    }
+
+    private static boolean uses(final List<GeneratedField> fields, final FieldKind kind) {
+        return fields.stream().anyMatch(f -> f.getKind() == kind);
+    }
+
+    private static String equality(final GeneratedField field, final String thisValue, final String thatValue) {
+        if (field.getKind() != FieldKind.PRIMITIVE) {
+            return "java.util.Objects.deepEquals(" + thisValue + ", " + thatValue + ")";
+        }
+        // Boxed floating point equality compares the bits, so NaN equals NaN and 0.0 doesn't equal -0.0
+        if (field.getType().getKind() == TypeKind.FLOAT) {
+            return "Float.floatToIntBits(" + thisValue + ") == Float.floatToIntBits(" + thatValue + ")";
+        }
+        if (field.getType().getKind() == TypeKind.DOUBLE) {
+            return "Double.doubleToLongBits(" + thisValue + ") == Double.doubleToLongBits(" + thatValue + ")";
+        }
+        return thisValue + " == " + thatValue;
+    }
+
+    private static String hashCode(final GeneratedField field, final String value) {
+        switch (field.getKind()) {
+            case PRIMITIVE:
+                return boxedName(field.getType().getKind()) + ".hashCode(" + value + ")";
+            case PRIMITIVE_ARRAY:
+                return "java.util.Arrays.hashCode(" + value + ")";
+            case OBJECT_ARRAY:
+                return "java.util.Arrays.deepHashCode(" + value + ")";
+            case POSSIBLY_ARRAY:
+                return "deepHashCode(" + value + ")";
+            default:
+                return "java.util.Objects.hashCode(" + value + ")";
+        }
+    }
+
+    private static String comparison(final GeneratedField field, final String thisValue, final String thatValue) {
+        switch (field.getKind()) {
+            case PRIMITIVE:
+                return boxedName(field.getType().getKind()) + ".compare(" + thisValue + ", " + thatValue + ")";
+            case OPTIONAL:
+                return "compareOptional(" + thisValue + ", " + thatValue + ")";
+            default:
+                return "compareNullsFirst(" + thisValue + ", " + thatValue + ")";
+        }
+    }
+
+    private static String toString(final GeneratedField field, final String value) {
+        switch (field.getKind()) {
+            case OBJECT_ARRAY:
+                return "java.util.Arrays.toString(" + value + ")";
+            case POSSIBLY_ARRAY:
+                return "arraySafeToString(" + value + ")";
+            case PRIMITIVE_ARRAY:
+                // The cast stops char[] being rendered as its contents
+                return "String.valueOf((Object) " + value + ")";
+            default:
+                return "String.valueOf(" + value + ")";
+        }
+    }
+
+    private static String boxedName(final TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "Boolean";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case CHAR:
+                return "Character";
+            case INT:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            default:
+                throw new IllegalArgumentException("Not a primitive: " + kind);
+        }
+    }
+}
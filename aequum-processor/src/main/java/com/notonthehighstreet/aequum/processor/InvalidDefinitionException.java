@@ -0,0 +1,18 @@
+package com.notonthehighstreet.aequum.processor;
+
+import javax.lang.model.element.Element;
+
+class InvalidDefinitionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Element element;
+
+    InvalidDefinitionException(final String message, final Element element) {
+        super(message);
+        this.element = element;
+    }
+
+    Element getElement() {
+        return element;
+    }
+}
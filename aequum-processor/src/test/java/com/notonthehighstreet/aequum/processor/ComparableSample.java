@@ -0,0 +1,81 @@
+package com.notonthehighstreet.aequum.processor;
+
+/*
+ * #%L
+ * Aequum Processor
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Optional;
+
+@GenerateAequum(fields = {"name", "count", "ratio", "big", "flag", "initial", "nickname"}, toStringFields = {"note"}, comparable = true)
+public class ComparableSample {
+    private final String name;
+    private final int count;
+    final double ratio;
+    private final long big;
+    private final boolean flag;
+    private final char initial;
+    private final Optional<String> nickname;
+    private final String note;
+
+    ComparableSample(final String name, final int count, final double ratio, final long big, final boolean flag, final char initial,
+                     final Optional<String> nickname, final String note) {
+        this.name = name;
+        this.count = count;
+        this.ratio = ratio;
+        this.big = big;
+        this.flag = flag;
+        this.initial = initial;
+        this.nickname = nickname;
+        this.note = note;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getBig() {
+        return big;
+    }
+
+    public boolean isFlag() {
+        return flag;
+    }
+
+    public char getInitial() {
+        return initial;
+    }
+
+    public Optional<String> getNickname() {
+        return nickname;
+    }
+
+    public String getNote() {
+        return note;
+    }
+}
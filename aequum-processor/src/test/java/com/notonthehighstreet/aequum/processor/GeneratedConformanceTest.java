@@ -0,0 +1,163 @@
+package com.notonthehighstreet.aequum.processor;
+
+/*
+ * #%L
+ * Aequum Processor
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import com.notonthehighstreet.aequum.Aequum;
+import com.notonthehighstreet.aequum.ComparableEqualsHashCode;
+import com.notonthehighstreet.aequum.EqualsHashCode;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the generated code behaves exactly the same as the library for the same fields.
+ */
+public class GeneratedConformanceTest {
+
+    private static final int ITERATIONS = 5_000;
+
+    private static final ComparableEqualsHashCode<ComparableSample> COMPARABLE = Aequum.builder(ComparableSample.class)
+            .withComparableField(ComparableSample::getName)
+            .withComparableField(ComparableSample::getCount)
+            .withComparableField(o -> o.ratio)
+            .withComparableField(ComparableSample::getBig)
+            .withComparableField(ComparableSample::isFlag)
+            .withComparableField(ComparableSample::getInitial)
+            .withOptionalComparableField(ComparableSample::getNickname)
+            .withToStringField(ComparableSample::getNote)
+            .build();
+
+    private static final EqualsHashCode<IncomparableSample> INCOMPARABLE = Aequum.builder(IncomparableSample.class)
+            .withField(IncomparableSample::getTags)
+            .withField(o -> o.codes)
+            .withField(IncomparableSample::getPayload)
+            .withField(IncomparableSample::getLabel)
+            .withToStringField(IncomparableSample::getSecret)
+            .build();
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void comparableIsEqualShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final ComparableSample one = comparableSample();
+            final ComparableSample two = comparableSample();
+            assertEquals(COMPARABLE.isEqual(one, two), ComparableSampleAequum.isEqual(one, two));
+        }
+    }
+
+    @Test
+    public void comparableIsEqualShouldMatchLibraryForSpecialCases() throws Exception {
+        final ComparableSample sample = comparableSample();
+
+        assertTrue(ComparableSampleAequum.isEqual(sample, sample));
+        assertFalse(ComparableSampleAequum.isEqual(sample, null));
+        assertFalse(ComparableSampleAequum.isEqual(sample, "sample"));
+    }
+
+    @Test
+    public void comparableToHashCodeShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final ComparableSample sample = comparableSample();
+            assertEquals(COMPARABLE.toHashCode(sample), ComparableSampleAequum.toHashCode(sample));
+        }
+    }
+
+    @Test
+    public void comparableCompareShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final ComparableSample one = comparableSample();
+            final ComparableSample two = comparableSample();
+            assertEquals(Integer.signum(COMPARABLE.compare(one, two)), Integer.signum(ComparableSampleAequum.compare(one, two)));
+        }
+    }
+
+    @Test
+    public void comparableToStringShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final ComparableSample sample = comparableSample();
+            assertEquals(COMPARABLE.toString(sample), ComparableSampleAequum.toString(sample));
+        }
+    }
+
+    @Test
+    public void incomparableIsEqualShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final IncomparableSample one = incomparableSample();
+            final IncomparableSample two = incomparableSample();
+            assertEquals(INCOMPARABLE.isEqual(one, two), IncomparableSampleAequum.isEqual(one, two));
+        }
+    }
+
+    @Test
+    public void incomparableToHashCodeShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final IncomparableSample sample = incomparableSample();
+            assertEquals(INCOMPARABLE.toHashCode(sample), IncomparableSampleAequum.toHashCode(sample));
+        }
+    }
+
+    @Test
+    public void incomparableToStringShouldMatchLibrary() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final IncomparableSample sample = incomparableSample();
+            assertEquals(INCOMPARABLE.toString(sample), IncomparableSampleAequum.toString(sample));
+        }
+    }
+
+    private ComparableSample comparableSample() {
+        return new ComparableSample(
+                pick(() -> null, () -> "a", () -> "b"),
+                pick(() -> -1, () -> 0, () -> 1),
+                pick(() -> 0.0, () -> -0.0, () -> Double.NaN, () -> 1.5),
+                pick(() -> 0L, () -> Long.MAX_VALUE),
+                random.nextBoolean(),
+                pick(() -> 'a', () -> 'b'),
+                pick(Optional::empty, () -> Optional.of("x"), () -> Optional.of("y")),
+                pick(() -> null, () -> "note"));
+    }
+
+    private IncomparableSample incomparableSample() {
+        return new IncomparableSample(
+                pick(() -> null, () -> new String[0], () -> new String[] {"a"}, () -> new String[] {"a", null}),
+                pick(() -> null, () -> new int[] {1}, () -> new int[] {1, 2}),
+                pick(() -> null, () -> "s", () -> new int[] {1}, () -> new Object[] {new int[] {1}}, () -> new String[] {"a"}),
+                pick(() -> null, () -> "label"),
+                pick(() -> null, () -> new char[] {'s'}));
+    }
+
+    @SafeVarargs
+    private final <V> V pick(final Supplier<V>... values) {
+        return values[random.nextInt(values.length)].get();
+    }
+}
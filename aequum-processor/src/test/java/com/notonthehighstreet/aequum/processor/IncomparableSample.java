@@ -0,0 +1,60 @@
+package com.notonthehighstreet.aequum.processor;
+
+/*
+ * #%L
+ * Aequum Processor
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+@GenerateAequum(fields = {"tags", "codes", "payload", "label"}, toStringFields = {"secret"})
+public class IncomparableSample {
+    private final String[] tags;
+    final int[] codes;
+    private final Object payload;
+    private final String label;
+    private final char[] secret;
+
+    IncomparableSample(final String[] tags, final int[] codes, final Object payload, final String label, final char[] secret) {
+        this.tags = tags;
+        this.codes = codes;
+        this.payload = payload;
+        this.label = label;
+        this.secret = secret;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public char[] getSecret() {
+        return secret;
+    }
+}
@@ -0,0 +1,255 @@
+package com.notonthehighstreet.aequum.processor;
+
+/*
+ * #%L
+ * Aequum Processor
+ * %%
+ * Copyright (C) 2014 notonthehighstreet.com
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compiles invalid definitions with the processor and checks the errors reported, and the element they are reported against.
+ */
+public class ProcessorDiagnosticsTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void validDefinitionShouldGenerateCodeWithoutErrors() throws Exception {
+        final Result result = compile("example.Valid",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = {\"name\", \"count\"}, comparable = true)",
+                "public class Valid {",
+                "  String name;",
+                "  public int getCount() { return 0; }",
+                "}");
+
+        assertThat(result.errors(), empty());
+        assertTrue(new File(result.generated, "example/ValidAequum.java").isFile());
+    }
+
+    @Test
+    public void unknownFieldShouldBeReported() throws Exception {
+        final Result result = compile("example.Unknown",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = {\"name\", \"missing\"})",
+                "public class Unknown {",
+                "  String name;",
+                "}");
+
+        assertThat(result.errors(), contains("3: No accessible getter or field found for 'missing'"));
+        assertFalse(new File(result.generated, "example/UnknownAequum.java").exists());
+    }
+
+    @Test
+    public void privateFieldShouldBeReportedAsUnknown() throws Exception {
+        final Result result = compile("example.Hidden",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"name\")",
+                "public class Hidden {",
+                "  private String name;",
+                "}");
+
+        assertThat(result.errors(), contains("3: No accessible getter or field found for 'name'"));
+    }
+
+    @Test
+    public void incomparableFieldShouldBeReportedWhenComparing() throws Exception {
+        final Result result = compile("example.Incomparable",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = {\"name\", \"tags\"}, comparable = true)",
+                "public class Incomparable {",
+                "  String name;",
+                "  java.util.List<String> tags;",
+                "}");
+
+        assertThat(result.errors(), contains("3: Field 'tags' of type java.util.List<java.lang.String> is not comparable"));
+    }
+
+    @Test
+    public void incomparableFieldShouldBeAllowedWithoutComparing() throws Exception {
+        final Result result = compile("example.Incomparable",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = {\"name\", \"tags\"})",
+                "public class Incomparable {",
+                "  String name;",
+                "  java.util.List<String> tags;",
+                "}");
+
+        assertThat(result.errors(), empty());
+    }
+
+    @Test
+    public void privateNestedTypeShouldBeReported() throws Exception {
+        final Result result = compile("example.Outer",
+                "package example;",
+                "public class Outer {",
+                "  @com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"name\")",
+                "  private static class Inner {",
+                "    String name;",
+                "  }",
+                "}");
+
+        assertThat(result.errors(), contains("4: @GenerateAequum can't be used on private types"));
+    }
+
+    @Test
+    public void typeNestedInPrivateTypeShouldBeReported() throws Exception {
+        final Result result = compile("example.Outer",
+                "package example;",
+                "public class Outer {",
+                "  private static class Middle {",
+                "    @com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"name\")",
+                "    static class Inner {",
+                "      String name;",
+                "    }",
+                "  }",
+                "}");
+
+        assertThat(result.errors(), contains("5: @GenerateAequum can't be used on private types"));
+    }
+
+    @Test
+    public void nestedTypeShouldGenerateCodeNamedAfterEnclosingTypes() throws Exception {
+        final Result result = compile("example.Outer",
+                "package example;",
+                "public class Outer {",
+                "  @com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"name\")",
+                "  static class Inner {",
+                "    String name;",
+                "  }",
+                "}");
+
+        assertThat(result.errors(), empty());
+        assertTrue(new File(result.generated, "example/Outer_InnerAequum.java").isFile());
+    }
+
+    @Test
+    public void genericTypeShouldBeReported() throws Exception {
+        final Result result = compile("example.Generic",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"value\")",
+                "public class Generic<T> {",
+                "  T value;",
+                "}");
+
+        assertThat(result.errors(), contains("3: @GenerateAequum can't be used on generic types"));
+    }
+
+    @Test
+    public void interfaceShouldBeReported() throws Exception {
+        final Result result = compile("example.Shape",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"name\")",
+                "public interface Shape {",
+                "  String getName();",
+                "}");
+
+        assertThat(result.errors(), contains("3: @GenerateAequum can only be used on classes"));
+    }
+
+    @Test
+    public void duplicateFieldShouldBeReported() throws Exception {
+        final Result result = compile("example.Duplicate",
+                "package example;",
+                "@com.notonthehighstreet.aequum.processor.GenerateAequum(fields = \"name\", toStringFields = \"name\")",
+                "public class Duplicate {",
+                "  String name;",
+                "}");
+
+        assertThat(result.errors(), contains("3: Field 'name' is listed more than once"));
+    }
+
+    private Result compile(final String className, final String... lines) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final File generated = folder.newFolder("generated");
+        final File classes = folder.newFolder("classes");
+        final String classpath = new File(GenerateAequum.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-classpath", classpath, "-s", generated.getPath(), "-d", classes.getPath()), null,
+                Collections.singletonList(new Source(className, String.join("\n", lines))));
+        task.setProcessors(Collections.singletonList(new AequumProcessor()));
+        task.call();
+
+        return new Result(diagnostics.getDiagnostics(), generated);
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+        private final String content;
+
+        Source(final String className, final String content) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    private static class Result {
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final File generated;
+
+        Result(final List<Diagnostic<? extends JavaFileObject>> diagnostics, final File generated) {
+            this.diagnostics = diagnostics;
+            this.generated = generated;
+        }
+
+        /**
+         * Each error as its line number and message, so that the element it was reported against is checked too.
+         */
+        List<String> errors() {
+            return diagnostics.stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .map(d -> d.getLineNumber() + ": " + d.getMessage(null))
+                    .collect(Collectors.toList());
+        }
+    }
+}